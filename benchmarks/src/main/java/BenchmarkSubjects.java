@@ -0,0 +1,364 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * The code under test sits in the default package, which a named package
+ * (and so every JMH benchmark) cannot refer to. The subjects are built here,
+ * in the default package, and handed out as plain functional interfaces;
+ * the benchmarks look the factories up by name once, see Subjects.
+ *
+ * Every subject is seeded, so runs are comparable.
+ */
+public class BenchmarkSubjects {
+    private static final long SEED = 133;
+    private static final double STEP_SECONDS = 1.0 / Globals.SIMULATION_STEPS_PER_SECOND;
+    private static final int CANVAS_WIDTH = 1100;
+    private static final int CANVAS_HEIGHT = 650;
+
+    /**
+     * Velocity of a helicopter that turns every step: the direction of the
+     * heading is recomputed (sin/cos) before the velocity is read. This is
+     * what MoveableObject.directionToVector() did on every frame.
+     */
+    public static DoubleSupplier turningVelocity() {
+        HelicopterModel helicopter = flyingHelicopter();
+        return () -> {
+            helicopter.steerLeft();
+            return helicopter.getVelocityX() + helicopter.getVelocityY();
+        };
+    }
+
+    /**
+     * Velocity of a helicopter flying straight: the direction is cached.
+     */
+    public static DoubleSupplier straightVelocity() {
+        HelicopterModel helicopter = flyingHelicopter();
+        return () -> helicopter.getVelocityX() + helicopter.getVelocityY();
+    }
+
+    /**
+     * One simulation step of the helicopter (Helicopter.update()).
+     */
+    public static Runnable helicopterUpdate() {
+        HelicopterModel helicopter = flyingHelicopter();
+        return () -> helicopter.update(STEP_SECONDS);
+    }
+
+    /**
+     * One simulation step of the whole world: every model, the integration
+     * and the collision grid.
+     */
+    public static Runnable worldUpdate() {
+        GameWorld world = new GameWorld(
+                new RandomStreams(SEED).stream("world").nextLong());
+        world.getHelicopter().toggleIgnition();
+        world.getHelicopter().increaseSpeed();
+        return () -> world.update(STEP_SECONDS);
+    }
+
+    private static HelicopterModel flyingHelicopter() {
+        // enough fuel to never run out during a benchmark
+        HelicopterModel helicopter = new HelicopterModel(0, 0, Integer.MAX_VALUE);
+        helicopter.toggleIgnition();
+        helicopter.increaseSpeed();
+        return helicopter;
+    }
+
+    /**
+     * One Boids.step() (the simulation half of Boids.animationLoop()).
+     *
+     * @param kernel "objects" for the Boid objects, or a BoidKernel name
+     */
+    public static Runnable boidsStep(int numBoids, String kernel) {
+        Boids boids = new Boids();
+        boids.setNumBoids(numBoids);
+        if (kernel.equals("simd")) {
+            // fail rather than measure the scalar fallback as "simd"
+            try {
+                boids.setKernel(BoidKernel.loadSimd());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("SIMD kernel not available", e);
+            }
+        } else if (!kernel.equals("objects")) {
+            boids.setKernel(BoidKernel.load(kernel));
+        }
+        boids.setRandom(new RandomStreams(SEED).stream("boids"));
+        boids.initBoids();
+        return boids::step;
+    }
+
+    /**
+     * Recording the drawing of the flock (the drawing half of
+     * Boids.animationLoop()). The canvas is never shown, so its commands are
+     * only buffered and never rasterized: this measures the cost on the FX
+     * thread, not the pixels.
+     *
+     * @param mode a BoidRenderer.Mode
+     */
+    public static Runnable boidsRecordDraw(int numBoids, String mode) {
+        Random random = new Random(SEED);
+        Boid[] flock = new Boid[numBoids];
+        for (int i = 0; i < numBoids; i++) {
+            flock[i] = new Boid(random.nextDouble() * CANVAS_WIDTH,
+                    random.nextDouble() * CANVAS_HEIGHT,
+                    random.nextDouble() * 10 - 5,
+                    random.nextDouble() * 10 - 5, 50);
+            for (int t = 0; t < 50; t++) {
+                flock[i].trail.add(flock[i].x + t, flock[i].y + t);
+            }
+        }
+        GraphicsContext gc = new Canvas(CANVAS_WIDTH, CANVAS_HEIGHT).getGraphicsContext2D();
+        BoidRenderer renderer = new BoidRenderer(CANVAS_WIDTH, CANVAS_HEIGHT);
+        Boids boids = new Boids();
+        switch (BoidRenderer.Mode.valueOf(mode)) {
+            case LEGACY:
+                return () -> {
+                    gc.clearRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+                    for (Boid boid : flock) {
+                        boids.drawGraphics(gc, boid);
+                    }
+                };
+            case PIXELS:
+                return () -> {
+                    gc.clearRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+                    renderer.drawPixels(gc, flock);
+                };
+            default:
+                return () -> {
+                    gc.clearRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+                    renderer.drawBatched(gc, flock, false);
+                };
+        }
+    }
+
+    /**
+     * Recording the full redraw SimplePaintObjects did on every mouse drag:
+     * clear the canvas and draw every committed ShapeObject. The canvas is
+     * never shown, so the commands are never rasterized.
+     */
+    public static Runnable paintRecordRedraw(int numShapes) {
+        Random random = new Random(SEED);
+        List<ShapeObject> shapes = new ArrayList<>();
+        for (int i = 0; i < numShapes; i++) {
+            double x = random.nextDouble() * CANVAS_WIDTH;
+            double y = random.nextDouble() * CANVAS_HEIGHT;
+            double endX = x + random.nextDouble() * 100;
+            double endY = y + random.nextDouble() * 100;
+            Color color = Color.hsb(random.nextDouble() * 360, 1, 1);
+            switch (i % 4) {
+                case 0:
+                    shapes.add(new LineSegmentShape(new Point2D(x, y), new Point2D(endX, endY), color, 4));
+                    break;
+                case 1:
+                    shapes.add(new RectangleShape(x, y, endX, endY, color));
+                    break;
+                case 2:
+                    shapes.add(new OvalShape(x, y, endX, endY, color));
+                    break;
+                default:
+                    shapes.add(new RoundedRectangleShape(x, y, endX, endY, color));
+                    break;
+            }
+        }
+        GraphicsContext gc = new Canvas(CANVAS_WIDTH, CANVAS_HEIGHT).getGraphicsContext2D();
+        return () -> {
+            gc.setFill(Color.WHITE);
+            gc.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+            for (ShapeObject shape : shapes) {
+                shape.draw(gc);
+            }
+        };
+    }
+
+    /**
+     * Saving a drawing of n shapes: every shape written with DrawingWriter
+     * to a temporary file.
+     */
+    public static Runnable drawingWrite(int numShapes) {
+        List<ShapeObject> shapes = drawingShapes(numShapes);
+        Path file = temporaryDrawing();
+        return () -> {
+            try (DrawingWriter writer = new DrawingWriter(file, shapes.size())) {
+                for (ShapeObject shape : shapes) {
+                    writer.write(shape);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Opening a drawing of n shapes: every shape read with DrawingReader, as
+     * the loader thread of SimplePaintObjects does before handing the
+     * batches to the canvas.
+     *
+     * @return the number of shapes read
+     */
+    public static IntSupplier drawingRead(int numShapes) {
+        Path file = temporaryDrawing();
+        try {
+            DrawingFormat.write(file, drawingShapes(numShapes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return () -> {
+            int count = 0;
+            try (DrawingReader reader = new DrawingReader(file)) {
+                while (reader.read() != null) {
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        };
+    }
+
+    // Every shape type in turn, strokes of 8 points, in a few colors
+    private static List<ShapeObject> drawingShapes(int numShapes) {
+        Random random = new Random(SEED);
+        List<ShapeObject> shapes = new ArrayList<>(numShapes);
+        for (int i = 0; i < numShapes; i++) {
+            double x = random.nextDouble() * CANVAS_WIDTH;
+            double y = random.nextDouble() * CANVAS_HEIGHT;
+            double endX = x + random.nextDouble() * 100;
+            double endY = y + random.nextDouble() * 100;
+            Color color = SimplePaintObjects.palette[i % SimplePaintObjects.palette.length];
+            switch (i % 6) {
+                case 0:
+                    shapes.add(new LineSegmentShape(new Point2D(x, y), new Point2D(endX, endY), color, 4));
+                    break;
+                case 1:
+                    shapes.add(new LineShape(new Point2D(x, y), new Point2D(endX, endY), color, 2));
+                    break;
+                case 2:
+                    PolylineShape stroke = new PolylineShape(x, y, color, 6);
+                    for (int point = 1; point < 8; point++) {
+                        stroke.addPoint(x + random.nextDouble() * 20, y + random.nextDouble() * 20);
+                    }
+                    shapes.add(stroke);
+                    break;
+                case 3:
+                    shapes.add(new RectangleShape(x, y, endX, endY, color));
+                    break;
+                case 4:
+                    shapes.add(new OvalShape(x, y, endX, endY, color));
+                    break;
+                default:
+                    shapes.add(new RoundedRectangleShape(x, y, endX, endY, color));
+                    break;
+            }
+        }
+        return shapes;
+    }
+
+    private static Path temporaryDrawing() {
+        try {
+            Path file = Files.createTempFile("drawing", ".spd");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Every pair of n bounding boxes tested with Bounds.intersects(), the
+     * way the A1 game tests getBoundsInParent() of its objects.
+     *
+     * @return the number of intersecting pairs
+     */
+    public static IntSupplier boundsPairs(int n) {
+        List<CollisionBody> bodies = scatteredBodies(n);
+        Bounds[] bounds = new Bounds[n];
+        for (int i = 0; i < n; i++) {
+            CollisionBody body = bodies.get(i);
+            bounds[i] = new BoundingBox(body.getMinX(), body.getMinY(),
+                    body.getMaxX() - body.getMinX(), body.getMaxY() - body.getMinY());
+        }
+        return () -> {
+            int pairs = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (bounds[i].intersects(bounds[j])) {
+                        pairs++;
+                    }
+                }
+            }
+            return pairs;
+        };
+    }
+
+    /**
+     * Every pair of n collision bodies tested with CollisionBody.overlaps().
+     *
+     * @return the number of overlapping pairs
+     */
+    public static IntSupplier bodyPairs(int n) {
+        CollisionBody[] bodies = scatteredBodies(n).toArray(new CollisionBody[0]);
+        return () -> {
+            int pairs = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (bodies[i].overlaps(bodies[j])) {
+                        pairs++;
+                    }
+                }
+            }
+            return pairs;
+        };
+    }
+
+    /**
+     * The same pairs found through the SpatialHashGrid, including the
+     * rebuild of the grid that GameWorld does every step.
+     *
+     * @return the number of overlapping pairs
+     */
+    public static IntSupplier gridPairs(int n) {
+        List<CollisionBody> bodies = scatteredBodies(n);
+        SpatialHashGrid grid = new SpatialHashGrid(Globals.COLLISION_CELL_SIZE);
+        int[] pairs = new int[1];
+        return () -> {
+            grid.clear();
+            for (CollisionBody body : bodies) {
+                grid.insert(body);
+            }
+            pairs[0] = 0;
+            grid.forEachOverlappingPair((a, b) -> pairs[0]++);
+            return pairs[0];
+        };
+    }
+
+    // Circles and rectangles about the size of the game objects, spread over
+    // an area that grows with n so the density stays the same
+    private static List<CollisionBody> scatteredBodies(int n) {
+        Random random = new Random(SEED);
+        double side = Math.sqrt(n) * 100;
+        List<CollisionBody> bodies = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            CollisionBody body = (i % 2 == 0)
+                    ? CollisionBody.circle(null, 10 + random.nextDouble() * 40)
+                    : CollisionBody.rectangle(null, 20 + random.nextDouble() * 80,
+                            20 + random.nextDouble() * 80);
+            body.setCenter(random.nextDouble() * side, random.nextDouble() * side);
+            bodies.add(body);
+        }
+        return bodies;
+    }
+}
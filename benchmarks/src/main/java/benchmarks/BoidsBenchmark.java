@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Boids.animationLoop() split in its two halves, the simulation step and
+ * the drawing, at several flock sizes. The drawing goes to a canvas that is
+ * never shown, so recordDraw measures recording the commands, not the
+ * rasterization.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BoidsBenchmark {
+    @State(Scope.Thread)
+    public static class StepState {
+        @Param({"100", "1000", "10000"})
+        public int numBoids;
+
+        /** "objects" steers the Boid objects, or the name of a BoidKernel */
+        @Param({"objects", "scalar", "simd"})
+        public String kernel;
+
+        private Runnable step;
+
+        @Setup
+        public void setUp() {
+            step = Subjects.create(Runnable.class, "boidsStep", numBoids, kernel);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RecordDrawState {
+        @Param({"100", "1000", "10000"})
+        public int numBoids;
+
+        /** a BoidRenderer.Mode */
+        @Param({"LEGACY", "BATCHED", "PIXELS"})
+        public String renderMode;
+
+        private Runnable draw;
+
+        @Setup
+        public void setUp() {
+            draw = Subjects.create(Runnable.class, "boidsRecordDraw", numBoids, renderMode);
+        }
+    }
+
+    @Benchmark
+    public void step(StepState state) {
+        state.step.run();
+    }
+
+    @Benchmark
+    public void recordDraw(RecordDrawState state) {
+        state.draw.run();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finding every intersecting pair of N objects: javafx Bounds and
+ * CollisionBody tested pair by pair, and the SpatialHashGrid broadphase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param({"10", "100", "1000"})
+    public int numBodies;
+
+    private IntSupplier boundsPairs;
+    private IntSupplier bodyPairs;
+    private IntSupplier gridPairs;
+
+    @Setup
+    public void setUp() {
+        boundsPairs = Subjects.create(IntSupplier.class, "boundsPairs", numBodies);
+        bodyPairs = Subjects.create(IntSupplier.class, "bodyPairs", numBodies);
+        gridPairs = Subjects.create(IntSupplier.class, "gridPairs", numBodies);
+    }
+
+    @Benchmark
+    public int boundsIntersects() {
+        return boundsPairs.getAsInt();
+    }
+
+    @Benchmark
+    public int collisionBodyOverlaps() {
+        return bodyPairs.getAsInt();
+    }
+
+    @Benchmark
+    public int spatialHashGrid() {
+        return gridPairs.getAsInt();
+    }
+}
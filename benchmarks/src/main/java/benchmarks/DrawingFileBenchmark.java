@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and opening a SimplePaintObjects drawing of N shapes in the binary
+ * DrawingFormat, through DrawingWriter and DrawingReader. A drawing of a
+ * million shapes should open in well under a second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DrawingFileBenchmark {
+    @Param({"1000000"})
+    public int numShapes;
+
+    private Runnable write;
+    private IntSupplier read;
+
+    @Setup
+    public void setUp() {
+        write = Subjects.create(Runnable.class, "drawingWrite", numShapes);
+        read = Subjects.create(IntSupplier.class, "drawingRead", numShapes);
+    }
+
+    @Benchmark
+    public void write() {
+        write.run();
+    }
+
+    @Benchmark
+    public int read() {
+        return read.getAsInt();
+    }
+}
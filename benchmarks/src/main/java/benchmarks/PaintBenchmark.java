@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recording the full canvas redraw SimplePaintObjects did on every mouse
+ * drag, with N shapes already drawn. The canvas is never shown, so only the
+ * GraphicsContext calls are measured, not the rasterization.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaintBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int numShapes;
+
+    private Runnable recordRedraw;
+
+    @Setup
+    public void setUp() {
+        recordRedraw = Subjects.create(Runnable.class, "paintRecordRedraw", numShapes);
+    }
+
+    @Benchmark
+    public void recordRedraw() {
+        recordRedraw.run();
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per step work of the A3 game: the velocity of a moving object, the
+ * update of the helicopter and the update of the whole world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RainmakerBenchmark {
+    private DoubleSupplier turningVelocity;
+    private DoubleSupplier straightVelocity;
+    private Runnable helicopterUpdate;
+    private Runnable worldUpdate;
+
+    @Setup
+    public void setUp() {
+        turningVelocity = Subjects.create(DoubleSupplier.class, "turningVelocity");
+        straightVelocity = Subjects.create(DoubleSupplier.class, "straightVelocity");
+        helicopterUpdate = Subjects.create(Runnable.class, "helicopterUpdate");
+        worldUpdate = Subjects.create(Runnable.class, "worldUpdate");
+    }
+
+    @Benchmark
+    public double directionToVector_turning() {
+        return turningVelocity.getAsDouble();
+    }
+
+    @Benchmark
+    public double directionToVector_straight() {
+        return straightVelocity.getAsDouble();
+    }
+
+    @Benchmark
+    public void helicopterUpdate() {
+        helicopterUpdate.run();
+    }
+
+    @Benchmark
+    public void worldUpdate() {
+        worldUpdate.run();
+    }
+}
@@ -0,0 +1,29 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Looks up a factory of the default package BenchmarkSubjects by name. Only
+ * done in @Setup, the benchmark methods call the returned interface.
+ */
+final class Subjects {
+    private Subjects() {
+    }
+
+    static <T> T create(Class<T> type, String factory, Object... arguments) {
+        try {
+            for (Method method : Class.forName("BenchmarkSubjects").getMethods()) {
+                if (method.getName().equals(factory)
+                        && method.getParameterCount() == arguments.length) {
+                    return type.cast(method.invoke(null, arguments));
+                }
+            }
+            throw new IllegalArgumentException("no subject " + factory);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(factory + " failed", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
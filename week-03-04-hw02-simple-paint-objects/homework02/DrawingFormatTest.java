@@ -0,0 +1,192 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DrawingFormatTest {
+    private static final Color TRANSLUCENT = Color.rgb(10, 20, 30, 0.4);
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("drawing");
+        this.file = this.directory.resolve("drawing.spd");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(this.directory);
+    }
+
+    /**
+     * @brief Test that every shape type reads back with its type, color,
+     *        pen width and points (on the 1/16 pixel grid).
+     * @throws Exception
+     */
+    @Test
+    public void writeThenRead_keepsAllShapeTypes() throws Exception {
+        PolylineShape stroke = new PolylineShape(5, 6, Color.RED, 4);
+        stroke.addPoint(7.5, 6.25);
+        stroke.addPoint(9.0625, 2);
+        List<ShapeObject> shapes = Arrays.asList(
+                new LineSegmentShape(new Point2D(1, 2),
+                        new Point2D(300.5, 40.25), Color.BLACK, 2),
+                new LineShape(new Point2D(300.5, 40.25),
+                        new Point2D(0, 0), Color.RED, 6),
+                stroke,
+                new RectangleShape(10, 20, 110.5, 70, TRANSLUCENT),
+                new OvalShape(640, 480, 600, 400, Color.BLUE),
+                new RoundedRectangleShape(0, 0, 0.0625, 1, Color.RED));
+        DrawingFormat.write(this.file, shapes);
+        try (DrawingReader reader = new DrawingReader(this.file)) {
+            assertEquals(6, reader.getShapeCount());
+        }
+        List<ShapeObject> read = DrawingFormat.read(this.file);
+        assertEquals(6, read.size());
+
+        LineSegmentShape segment = (LineSegmentShape) read.get(0);
+        assertEquals(Color.BLACK, segment.getColor());
+        assertEquals(2, segment.getPenWidth());
+        assertEquals(new Point2D(1, 2), segment.getStart());
+        assertEquals(new Point2D(300.5, 40.25), segment.getEnd());
+
+        LineShape line = (LineShape) read.get(1);
+        assertEquals(Color.RED, line.getColor());
+        assertEquals(6, line.getPenWidth());
+        assertEquals(new Point2D(300.5, 40.25), line.getStart());
+        assertEquals(new Point2D(0, 0), line.getEnd());
+
+        PolylineShape readStroke = (PolylineShape) read.get(2);
+        assertEquals(Color.RED, readStroke.getColor());
+        assertEquals(4, readStroke.getPenWidth());
+        assertEquals(3, readStroke.getPointCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(stroke.getX(i), readStroke.getX(i), 0);
+            assertEquals(stroke.getY(i), readStroke.getY(i), 0);
+        }
+
+        assertFilled(RectangleShape.class, 10, 20, 110.5, 70, read.get(3));
+        assertEquals(TRANSLUCENT, ((FilledPolyShape) read.get(3)).color);
+        assertFilled(OvalShape.class, 640, 480, 600, 400, read.get(4));
+        assertEquals(Color.BLUE, ((FilledPolyShape) read.get(4)).color);
+        assertFilled(RoundedRectangleShape.class, 0, 0, 0.0625, 1,
+                read.get(5));
+        assertEquals(Color.RED, ((FilledPolyShape) read.get(5)).color);
+    }
+
+    /**
+     * @brief Test that a file cut short fails with an EOFException instead
+     *        of returning made-up shapes.
+     * @throws Exception
+     */
+    @Test(expected = EOFException.class)
+    public void read_truncatedFile_fails() throws Exception {
+        DrawingFormat.write(this.file, Arrays.asList(
+                new RectangleShape(10, 20, 110, 70, Color.GREEN),
+                new OvalShape(30, 40, 50, 60, Color.GREEN)));
+        byte[] bytes = Files.readAllBytes(this.file);
+        Files.write(this.file, Arrays.copyOf(bytes, bytes.length - 2));
+        DrawingFormat.read(this.file);
+    }
+
+    /**
+     * @brief Test that a file without the drawing magic number is
+     *        rejected.
+     * @throws Exception
+     */
+    @Test
+    public void read_badMagic_fails() throws Exception {
+        Files.write(this.file, new byte[] { 'P', 'N', 'G', 1, 0 });
+        try {
+            DrawingFormat.read(this.file);
+            fail("a file that is not a drawing was read");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("is not a drawing"));
+        }
+    }
+
+    /**
+     * @brief Test that a damaged shape count, negative or larger than the
+     *        file can hold, fails with an IOException before anything is
+     *        allocated for it.
+     * @throws Exception
+     */
+    @Test
+    public void read_implausibleShapeCount_fails() throws Exception {
+        byte[][] counts = {
+                // -1 as a 64 bit varint
+                { -1, -1, -1, -1, -1, -1, -1, -1, -1, 1 },
+                // 2^31, more than an int
+                { -128, -128, -128, -128, 8 },
+                // 1000 shapes in a few bytes
+                { -24, 7 } };
+        for (byte[] count : counts) {
+            ByteBuffer header = ByteBuffer.allocate(5 + count.length + 12);
+            header.putInt(DrawingFormat.MAGIC);
+            header.put((byte) DrawingFormat.VERSION);
+            header.put(count);
+            Files.write(this.file, header.array());
+            try {
+                DrawingFormat.read(this.file);
+                fail("a count of " + Arrays.toString(count) + " was read");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("cannot hold"));
+            }
+        }
+    }
+
+    /**
+     * @brief Test that saving over a drawing replaces it and leaves no
+     *        temporary file behind.
+     * @throws Exception
+     */
+    @Test
+    public void write_replacesTheFile() throws Exception {
+        DrawingFormat.write(this.file, Arrays.asList(
+                new RectangleShape(10, 20, 110, 70, Color.GREEN),
+                new OvalShape(30, 40, 50, 60, Color.GREEN)));
+        DrawingFormat.write(this.file, Arrays.asList(
+                new OvalShape(1, 2, 3, 4, Color.CYAN)));
+        assertEquals(1, DrawingFormat.read(this.file).size());
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private static void assertFilled(
+            Class<?> type,
+            double xInital,
+            double yInital,
+            double xPoints,
+            double yPoints,
+            ShapeObject shape) {
+        assertSame(type, shape.getClass());
+        FilledPolyShape filled = (FilledPolyShape) shape;
+        assertEquals(xInital, filled.xInital, 0);
+        assertEquals(yInital, filled.yInital, 0);
+        assertEquals(xPoints, filled.xPoints, 0);
+        assertEquals(yPoints, filled.yPoints, 0);
+    }
+}
@@ -0,0 +1,108 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javafx.scene.paint.Color;
+
+import org.junit.Test;
+
+public class PolylineShapeTest {
+    private static final double TOLERANCE = PointTool.SIMPLIFY_TOLERANCE;
+
+    /**
+     * @brief Test that a stroke doubling back along the same row keeps its
+     *        turning point, so none of the drawn ink is dropped.
+     * @throws Exception
+     */
+    @Test
+    public void simplify_keepsTheTurnOfABacktrackingStroke() throws Exception {
+        PolylineShape stroke = new PolylineShape(0, 0, Color.BLACK, 4);
+        for (int x = 1; x <= 200; x++) {
+            stroke.addPoint(x, 0);
+        }
+        for (int x = 199; x >= 20; x--) {
+            stroke.addPoint(x, 0);
+        }
+        double[][] drawn = points(stroke);
+        stroke.simplify(TOLERANCE);
+        assertEquals(3, stroke.getPointCount());
+        assertEquals(200, stroke.getX(1), 0);
+        assertEquals(20, stroke.getX(2), 0);
+        assertWithinTolerance(drawn, stroke);
+    }
+
+    /**
+     * @brief Test that a 2000-point circle of radius 200 keeps 65 points,
+     *        every dropped point within the tolerance of what is left.
+     * @throws Exception
+     */
+    @Test
+    public void simplify_circle_keepsFewPointsWithinTolerance()
+            throws Exception {
+        PolylineShape stroke = new PolylineShape(400, 300, Color.BLACK, 4);
+        for (int i = 1; i < 2000; i++) {
+            double angle = 2 * Math.PI * i / 2000;
+            stroke.addPoint(200 + 200 * Math.cos(angle),
+                    300 + 200 * Math.sin(angle));
+        }
+        double[][] drawn = points(stroke);
+        stroke.simplify(TOLERANCE);
+        assertEquals(65, stroke.getPointCount());
+        assertWithinTolerance(drawn, stroke);
+    }
+
+    /**
+     * @brief Test that a tolerance of 0 keeps every point.
+     * @throws Exception
+     */
+    @Test
+    public void simplify_zeroTolerance_keepsEveryPoint() throws Exception {
+        PolylineShape stroke = new PolylineShape(0, 0, Color.BLACK, 4);
+        for (int x = 1; x < 100; x++) {
+            stroke.addPoint(x, 0);
+        }
+        stroke.simplify(0);
+        assertEquals(100, stroke.getPointCount());
+    }
+
+    private static double[][] points(PolylineShape stroke) {
+        double[][] points = new double[stroke.getPointCount()][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[] { stroke.getX(i), stroke.getY(i) };
+        }
+        return points;
+    }
+
+    /**
+     * Asserts that every drawn point is within the tolerance of some
+     * segment of the simplified stroke.
+     */
+    private static void assertWithinTolerance(
+            double[][] drawn,
+            PolylineShape stroke) {
+        for (double[] point : drawn) {
+            double nearest = Double.POSITIVE_INFINITY;
+            for (int i = 1; i < stroke.getPointCount(); i++) {
+                nearest = Math.min(nearest, distanceToSegment(point,
+                        stroke.getX(i - 1), stroke.getY(i - 1),
+                        stroke.getX(i), stroke.getY(i)));
+            }
+            assertTrue("(" + point[0] + ", " + point[1] + ") is " + nearest
+                    + " away", nearest <= TOLERANCE + 1e-9);
+        }
+    }
+
+    private static double distanceToSegment(
+            double[] point,
+            double x1,
+            double y1,
+            double x2,
+            double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1,
+                ((point[0] - x1) * dx + (point[1] - y1) * dy)
+                        / lengthSquared));
+        return Math.hypot(point[0] - x1 - t * dx, point[1] - y1 - t * dy);
+    }
+}
@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShapeGridIndexTest {
+    private static final double WIDTH = 600;
+    private static final double HEIGHT = 400;
+    private Random random;
+    private ShapeGridIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        this.random = new Random(133);
+        this.index = new ShapeGridIndex(WIDTH, HEIGHT, 50);
+    }
+
+    /**
+     * @brief Test that a query finds exactly the shapes a check of every
+     *        shape finds, including shapes partly off the canvas.
+     * @throws Exception
+     */
+    @Test
+    public void query_matchesBruteForce() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            this.index.add(randomBox(120));
+        }
+        assertQueriesMatchBruteForce();
+    }
+
+    /**
+     * @brief Test that queries still match a check of every shape after the
+     *        newest shapes are removed and the last one grows.
+     * @throws Exception
+     */
+    @Test
+    public void query_afterTruncateAndGrow_matchesBruteForce()
+            throws Exception {
+        for (int i = 0; i < 300; i++) {
+            this.index.add(randomBox(120));
+        }
+        this.index.truncate(200);
+        assertEquals(200, this.index.size());
+        assertQueriesMatchBruteForce();
+        Bounds last = this.index.getBounds(199);
+        this.index.growLast(new BoundingBox(last.getMinX() - 100,
+                last.getMinY() - 100, last.getWidth() + 200,
+                last.getHeight() + 200));
+        assertQueriesMatchBruteForce();
+        this.index.clear();
+        assertEquals(0, this.index.size());
+        assertQueriesMatchBruteForce();
+    }
+
+    private void assertQueriesMatchBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            Bounds region = randomBox(200);
+            BitSet hits = new BitSet();
+            this.index.query(region, hits);
+            BitSet expected = new BitSet();
+            for (int position = 0; position < this.index.size();
+                    position++) {
+                if (this.index.getBounds(position).intersects(region)) {
+                    expected.set(position);
+                }
+            }
+            assertEquals(expected, hits);
+        }
+    }
+
+    /**
+     * A box of up to maxSize by maxSize pixels, somewhat past every edge
+     * of the canvas.
+     */
+    private Bounds randomBox(double maxSize) {
+        double x = this.random.nextDouble() * (WIDTH + 200) - 100;
+        double y = this.random.nextDouble() * (HEIGHT + 200) - 100;
+        return new BoundingBox(x, y, this.random.nextDouble() * maxSize,
+                this.random.nextDouble() * maxSize);
+    }
+}
@@ -0,0 +1,37 @@
+import static org.junit.Assert.assertTrue;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+
+import org.junit.Test;
+
+public class ShapeObjectTest {
+    /**
+     * @brief Test that the bounds of a diagonal line contain the corners of
+     *        its SQUARE caps.
+     * @throws Exception
+     */
+    @Test
+    public void lineBoundsOf_containsTheSquareCaps() throws Exception {
+        Point2D start = new Point2D(0, 0);
+        Point2D end = new Point2D(10, 10);
+        double penWidth = 8;
+        Bounds bounds = ShapeObject.lineBoundsOf(start, end, penWidth);
+        // along the line and across it, half the pen width each
+        Point2D along = end.subtract(start).normalize()
+                .multiply(penWidth / 2);
+        Point2D across = new Point2D(-along.getY(), along.getX());
+        for (Point2D point : new Point2D[] { start, end }) {
+            Point2D outward = point == start ? along.multiply(-1) : along;
+            for (int side = -1; side <= 1; side += 2) {
+                Point2D corner = point.add(outward)
+                        .add(across.multiply(side));
+                assertTrue(corner + " outside " + bounds,
+                        bounds.getMinX() <= corner.getX() + 1e-9
+                                && corner.getX() - 1e-9 <= bounds.getMaxX()
+                                && bounds.getMinY() <= corner.getY() + 1e-9
+                                && corner.getY() - 1e-9 <= bounds.getMaxY());
+            }
+        }
+    }
+}
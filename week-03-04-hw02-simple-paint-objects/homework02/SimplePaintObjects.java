@@ -1,10 +1,33 @@
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
@@ -15,12 +38,18 @@ import javafx.scene.Node;
 import javafx.scene.paint.Color;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.shape.Ellipse;
 import javafx.scene.shape.Line;
 import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.scene.transform.Transform;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.stage.Window;
 
 /**
  * The class AbstractTool is, as you should expect, an abstract class,
@@ -93,7 +122,7 @@ class ColorTool extends AbstractTool {
 }
 
 /*
- * For this assignment there is only one ActionTool, namely, the clear button.
+ * The ActionTools are the clear, undo and redo buttons.
  * An ActionTool object performs an action when depressed. Since this action
  * may be a method outside of the Tool class hierarchy, you will need to pass
  * this action in as an object of type Runnable. This is much easier to do than
@@ -189,6 +218,14 @@ abstract class ShapeTool extends AbstractTool {
             Point2D end);
 
     abstract public ShapeObject getPaintShape();
+
+    /**
+     * Called when the mouse is released, after the shape is complete.
+     * Tools that build one shape over many drag events (the PointTool)
+     * finish it here; the other tools have nothing to do.
+     */
+    public void finish() {
+    }
 }
 
 /**
@@ -197,8 +234,15 @@ abstract class ShapeTool extends AbstractTool {
  * with the current drawing color.
  */
 class PointTool extends ShapeTool {
+    /**
+     * points closer than this (in pixels) to the simplified stroke are
+     * dropped when the stroke is finished, 0 keeps every point
+     */
+    static final double SIMPLIFY_TOLERANCE = 0.5;
     int penWidth;
-    LineSegmentShape lineSegmentShape;
+    PolylineShape polylineShape;
+    // true while the mouse is down and polylineShape is being extended
+    private boolean isStrokeOpen;
 
     /**
      * Creates a tool that is used to draw a point on the canvas.
@@ -222,11 +266,7 @@ class PointTool extends ShapeTool {
     public PointTool(int penWidth) {
         super(SimplePaintObjects.TOOL_RECT_FG);
         this.penWidth = penWidth;
-        lineSegmentShape = new LineSegmentShape(
-                new Point2D(0, 0),
-                new Point2D(0, 0),
-                Color.BLACK,
-                penWidth);
+        polylineShape = new PolylineShape(0, 0, Color.BLACK, penWidth);
         makePointToolIcon(penWidth);
     }
 
@@ -243,12 +283,30 @@ class PointTool extends ShapeTool {
             Color color,
             Point2D start,
             Point2D end) {
-        lineSegmentShape = new LineSegmentShape(start, end, color, penWidth);
+        // one stroke from mouse press to release is one shape
+        if (!isStrokeOpen) {
+            polylineShape = new PolylineShape(
+                    start.getX(), start.getY(), color, penWidth);
+            isStrokeOpen = true;
+        }
+        polylineShape.addPoint(end.getX(), end.getY());
     }
 
     @Override
     public ShapeObject getPaintShape() {
-        return lineSegmentShape;
+        return polylineShape;
+    }
+
+    /**
+     * Ends the current stroke and drops the points that do not change its
+     * shape, so the next drag starts a new stroke.
+     */
+    @Override
+    public void finish() {
+        if (isStrokeOpen) {
+            polylineShape.simplify(SIMPLIFY_TOLERANCE);
+            isStrokeOpen = false;
+        }
     }
 }
 
@@ -538,17 +596,58 @@ interface ShapeObject {
      *         while the mouse is dragging
      */
     public boolean dragUpdate();
+
+    /**
+     * Returns the box that contains every pixel the shape draws, including
+     * the width of its stroke, so a repaint of a region only has to draw
+     * the shapes whose box intersects it.
+     *
+     * @return the bounding box of the shape in canvas coordinates
+     */
+    public Bounds getBounds();
+
+    /**
+     * Creates the bounding box of the points (minX, minY) to (maxX, maxY),
+     * grown by a margin on every side for the stroke width.
+     */
+    static Bounds boundsOf(
+            double minX,
+            double minY,
+            double maxX,
+            double maxY,
+            double margin) {
+        return new BoundingBox(
+                minX - margin,
+                minY - margin,
+                maxX - minX + 2 * margin,
+                maxY - minY + 2 * margin);
+    }
+
+    /**
+     * Creates the bounding box of a line from start to end with a stroke of
+     * the given width. The default SQUARE cap of a diagonal line reaches
+     * its corner, penWidth / 2 * sqrt(2) away from the end point.
+     */
+    static Bounds lineBoundsOf(Point2D start, Point2D end, double penWidth) {
+        return boundsOf(
+                Math.min(start.getX(), end.getX()),
+                Math.min(start.getY(), end.getY()),
+                Math.max(start.getX(), end.getX()),
+                Math.max(start.getY(), end.getY()),
+                penWidth / 2 * Math.sqrt(2));
+    }
 }
 
 /**
  * LineSegmentShape is a shape that is used to draw a line on the canvas.
  *
- * The PointTool:
- * - draws LineSegmentShapes which are nothing more than lines extending
- * from wherever the mouse was when the last mouse event fired to
- * wherever the mouse is when the current mouse event fired.
- * LineSegmentShapes have:
- * - a width and color as well as a start and end location.
+ * LineSegmentShapes:
+ * - are nothing more than lines extending from wherever the mouse was when
+ * the last mouse event fired to wherever the mouse is when the current
+ * mouse event fired.
+ * - have a width and color as well as a start and end location.
+ * The PointTool used to add one per drag event; it now collects a whole
+ * stroke into one PolylineShape.
  */
 class LineSegmentShape implements ShapeObject {
     private int penWidth;
@@ -588,6 +687,27 @@ class LineSegmentShape implements ShapeObject {
         gc.strokeLine(start.getX(), start.getY(), end.getX(), end.getY());
     }
 
+    public Point2D getStart() {
+        return start;
+    }
+
+    public Point2D getEnd() {
+        return end;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public int getPenWidth() {
+        return penWidth;
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return ShapeObject.lineBoundsOf(start, end, penWidth);
+    }
+
     /**
      * update the objects list while dragging the mouse for
      * lines and points (but not for rectangles and ovals)
@@ -601,6 +721,208 @@ class LineSegmentShape implements ShapeObject {
     }
 }
 
+/**
+ * PolylineShape is a freehand stroke of the PointTool: every point the mouse
+ * was dragged through, from press to release, as one shape.
+ *
+ * The points are kept in two growable double arrays (not one object per
+ * point or segment), and the whole stroke is drawn with a single
+ * strokePolyline call. While the stroke is being drawn only its newest
+ * segment is drawn (drawLastSegment); when it is finished simplify() drops
+ * the points that lie within a tolerance of the line through their
+ * neighbours (Ramer-Douglas-Peucker).
+ */
+class PolylineShape implements ShapeObject {
+    private static final int INITIAL_CAPACITY = 16;
+    private int penWidth;
+    private Color color;
+    private double[] xPoints = new double[INITIAL_CAPACITY];
+    private double[] yPoints = new double[INITIAL_CAPACITY];
+    private int pointCount;
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a stroke that starts at the given point.
+     *
+     * @param x        the x coordinate of the first point
+     * @param y        the y coordinate of the first point
+     * @param color    the color of the stroke
+     * @param penWidth the width of the stroke
+     */
+    public PolylineShape(double x, double y, Color color, int penWidth) {
+        this.color = color;
+        this.penWidth = penWidth;
+        addPoint(x, y);
+    }
+
+    /**
+     * Appends a point to the stroke, growing the arrays when they are full.
+     */
+    public void addPoint(double x, double y) {
+        if (pointCount == xPoints.length) {
+            xPoints = Arrays.copyOf(xPoints, pointCount * 2);
+            yPoints = Arrays.copyOf(yPoints, pointCount * 2);
+        }
+        xPoints[pointCount] = x;
+        yPoints[pointCount] = y;
+        pointCount++;
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public double getX(int index) {
+        return xPoints[index];
+    }
+
+    public double getY(int index) {
+        return yPoints[index];
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public int getPenWidth() {
+        return penWidth;
+    }
+
+    /**
+     * Draws the whole stroke with one strokePolyline call.
+     */
+    @Override
+    public void draw(GraphicsContext gc) {
+        gc.save();
+        setStrokeStyle(gc);
+        gc.strokePolyline(xPoints, yPoints, pointCount);
+        gc.restore();
+    }
+
+    /**
+     * Draws only the segment to the newest point, while the stroke is
+     * being drawn. The round caps make the segments join up like the
+     * polyline drawn by draw().
+     */
+    public void drawLastSegment(GraphicsContext gc) {
+        if (pointCount < 2) {
+            return;
+        }
+        gc.save();
+        setStrokeStyle(gc);
+        gc.strokeLine(xPoints[pointCount - 2], yPoints[pointCount - 2],
+                xPoints[pointCount - 1], yPoints[pointCount - 1]);
+        gc.restore();
+    }
+
+    /**
+     * The box around every point so far; simplify() only drops points, so
+     * the box stays valid after it.
+     */
+    @Override
+    public Bounds getBounds() {
+        return ShapeObject.boundsOf(minX, minY, maxX, maxY, penWidth / 2.0);
+    }
+
+    private void setStrokeStyle(GraphicsContext gc) {
+        gc.setLineWidth(penWidth);
+        gc.setStroke(color);
+        gc.setLineCap(StrokeLineCap.ROUND);
+        gc.setLineJoin(StrokeLineJoin.ROUND);
+    }
+
+    /**
+     * Removes the points that are closer than the tolerance to the segment
+     * between the points kept around them (Ramer-Douglas-Peucker), then
+     * trims the arrays to the points left. The first and last point are
+     * always kept.
+     *
+     * @param tolerance the largest distance in pixels a dropped point may
+     *                  have from the simplified stroke, 0 or less keeps
+     *                  every point
+     */
+    public void simplify(double tolerance) {
+        if (tolerance > 0 && pointCount > 2) {
+            boolean[] keep = new boolean[pointCount];
+            keep[0] = true;
+            keep[pointCount - 1] = true;
+            // ranges (first, last) still to be checked, without recursion
+            ArrayDeque<int[]> ranges = new ArrayDeque<>();
+            ranges.push(new int[] { 0, pointCount - 1 });
+            while (!ranges.isEmpty()) {
+                int[] range = ranges.pop();
+                int farthest = -1;
+                double farthestDistance = tolerance;
+                for (int i = range[0] + 1; i < range[1]; i++) {
+                    double distance = distanceToSegment(i, range[0], range[1]);
+                    if (distance > farthestDistance) {
+                        farthest = i;
+                        farthestDistance = distance;
+                    }
+                }
+                if (farthest >= 0) {
+                    keep[farthest] = true;
+                    ranges.push(new int[] { range[0], farthest });
+                    ranges.push(new int[] { farthest, range[1] });
+                }
+            }
+            int kept = 0;
+            for (int i = 0; i < pointCount; i++) {
+                if (keep[i]) {
+                    xPoints[kept] = xPoints[i];
+                    yPoints[kept] = yPoints[i];
+                    kept++;
+                }
+            }
+            pointCount = kept;
+        }
+        xPoints = Arrays.copyOf(xPoints, pointCount);
+        yPoints = Arrays.copyOf(yPoints, pointCount);
+    }
+
+    /**
+     * The distance of a point from the line through two other points, or
+     * from the first of them if both are the same.
+     */
+    /**
+     * The distance of a point to the segment between two others. A stroke
+     * that doubles back has points past the ends of the segment, their
+     * distance is to the nearest end, not to the line through it.
+     */
+    private double distanceToSegment(int point, int first, int last) {
+        double dx = xPoints[last] - xPoints[first];
+        double dy = yPoints[last] - yPoints[first];
+        double px = xPoints[point] - xPoints[first];
+        double py = yPoints[point] - yPoints[first];
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(px, py);
+        }
+        double t = Math.max(0, Math.min(1,
+                (px * dx + py * dy) / lengthSquared));
+        return Math.hypot(px - t * dx, py - t * dy);
+    }
+
+    /**
+     * The stroke grows while the mouse is dragged, so it is added to the
+     * objects list on the first drag event.
+     *
+     * @return true if the object should update the objects list
+     *         while the mouse is dragging
+     */
+    @Override
+    public boolean dragUpdate() {
+        return true;
+    }
+}
+
 /**
  * The LineShape class isn't all that different from the LineSegmentShape
  * class except that its width is fixed and it is not updated on drag.
@@ -638,6 +960,27 @@ class LineShape implements ShapeObject {
         gc.strokeLine(start.getX(), start.getY(), end.getX(), end.getY());
     }
 
+    public Point2D getStart() {
+        return start;
+    }
+
+    public Point2D getEnd() {
+        return end;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public int getPenWidth() {
+        return penWidth;
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return ShapeObject.lineBoundsOf(start, end, penWidth);
+    }
+
     /**
      * Don't update the list while dragging the line tool around the canvas
      *
@@ -681,6 +1024,20 @@ abstract class FilledPolyShape implements ShapeObject {
         yDiff = Math.abs(yPoints - yInital);
     }
 
+    /**
+     * The shapes are drawn around the start point, out to the distance of
+     * the end point in each direction, and are filled, not stroked.
+     */
+    @Override
+    public Bounds getBounds() {
+        return ShapeObject.boundsOf(
+                xInital - xDiff,
+                yInital - yDiff,
+                xInital + xDiff,
+                yInital + yDiff,
+                0);
+    }
+
     /**
      * Returns true if the object should update the objects list
      * while the mouse is dragging.
@@ -811,6 +1168,1066 @@ class RoundedRectangleShape extends FilledPolyShape {
     }
 }
 
+/**
+ * ShapeGridIndex finds the shapes of a drawing that may intersect a region,
+ * without looking at every shape.
+ *
+ * The canvas is divided into square cells; every cell keeps the positions
+ * (in the shape list) of the shapes whose bounding box overlaps it. Shapes
+ * are only added at the end of the list and removed from the end, so every
+ * cell list stays sorted and removing shapes only pops from the cell lists.
+ * A query collects the positions into a BitSet, which returns them in
+ * drawing order without duplicates.
+ */
+class ShapeGridIndex {
+    private static final int INITIAL_CELL_CAPACITY = 8;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+    private final int[] cellSizes;
+    private final ArrayList<Bounds> bounds = new ArrayList<>();
+
+    /**
+     * Creates an empty index over a drawing area.
+     *
+     * @param width    the width of the drawing area
+     * @param height   the height of the drawing area
+     * @param cellSize the side of a cell in pixels
+     */
+    public ShapeGridIndex(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new int[columns * rows][];
+        this.cellSizes = new int[columns * rows];
+    }
+
+    /**
+     * Adds a shape at the end of the drawing.
+     *
+     * @param shapeBounds the bounding box of the shape
+     * @return the position of the shape in the drawing
+     */
+    public int add(Bounds shapeBounds) {
+        int position = bounds.size();
+        bounds.add(shapeBounds);
+        addToCells(position, shapeBounds);
+        return position;
+    }
+
+    /**
+     * Updates the bounding box of the last shape, which may only grow, e.g.
+     * while a stroke is being drawn.
+     *
+     * @param shapeBounds the new bounding box of the last shape
+     */
+    public void growLast(Bounds shapeBounds) {
+        int position = bounds.size() - 1;
+        bounds.set(position, shapeBounds);
+        addToCells(position, shapeBounds);
+    }
+
+    private void addToCells(int position, Bounds shapeBounds) {
+        int firstColumn = columnOf(shapeBounds.getMinX());
+        int lastColumn = columnOf(shapeBounds.getMaxX());
+        int firstRow = rowOf(shapeBounds.getMinY());
+        int lastRow = rowOf(shapeBounds.getMaxY());
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                int size = cellSizes[cell];
+                if (size > 0 && cells[cell][size - 1] == position) {
+                    continue; // already in this cell
+                }
+                if (cells[cell] == null) {
+                    cells[cell] = new int[INITIAL_CELL_CAPACITY];
+                } else if (size == cells[cell].length) {
+                    cells[cell] = Arrays.copyOf(cells[cell], size * 2);
+                }
+                cells[cell][size] = position;
+                cellSizes[cell] = size + 1;
+            }
+        }
+    }
+
+    /**
+     * Removes the shapes at and after a position, i.e. the newest ones.
+     *
+     * @param size the number of shapes to keep
+     */
+    public void truncate(int size) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            while (cellSizes[cell] > 0
+                    && cells[cell][cellSizes[cell] - 1] >= size) {
+                cellSizes[cell]--;
+            }
+        }
+        while (bounds.size() > size) {
+            bounds.remove(bounds.size() - 1);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(cellSizes, 0);
+        bounds.clear();
+    }
+
+    public int size() {
+        return bounds.size();
+    }
+
+    public Bounds getBounds(int position) {
+        return bounds.get(position);
+    }
+
+    /**
+     * Adds the positions of the shapes whose bounding box intersects the
+     * region to a set.
+     *
+     * @param region the region to look in
+     * @param hits   the set the positions are added to
+     */
+    public void query(Bounds region, BitSet hits) {
+        int firstColumn = columnOf(region.getMinX());
+        int lastColumn = columnOf(region.getMaxX());
+        int firstRow = rowOf(region.getMinY());
+        int lastRow = rowOf(region.getMaxY());
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int i = 0; i < cellSizes[cell]; i++) {
+                    int position = cells[cell][i];
+                    if (!hits.get(position)
+                            && bounds.get(position).intersects(region)) {
+                        hits.set(position);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The column of an x coordinate, shapes off the canvas are kept in the
+     * cells at its edge.
+     */
+    private int columnOf(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(
+                x / cellSize)));
+    }
+
+    private int rowOf(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(
+                y / cellSize)));
+    }
+}
+
+/**
+ * LayeredCanvas is the drawing area: a committed layer with every finished
+ * shape and a transparent preview layer on top of it for the shape that is
+ * being dragged out.
+ *
+ * A Canvas keeps its pixels, so a committed shape is rasterized once into
+ * the committed layer and never drawn again while the user keeps drawing.
+ * A drag only clears and redraws the preview layer, so its cost does not
+ * depend on how many shapes have been drawn.
+ *
+ * When committed pixels have to change (e.g. shapes are removed), only the
+ * dirty regions are repainted: markDirty() collects the regions, merging
+ * overlapping ones, and repaintDirty() clips to their union, fills it with
+ * the background and replays only the shapes the ShapeGridIndex finds in
+ * them. The preview layer likewise only clears the box of the previous
+ * preview.
+ *
+ * Every checkpointInterval shapes a snapshot of the committed layer is kept
+ * as a raster checkpoint. When the newest shapes are removed (undo), the
+ * dirty regions are restored from the newest checkpoint that does not
+ * contain them, and only the shapes after that checkpoint are replayed.
+ * The checkpoints are limited to a memory cap; when a new one would not
+ * fit, the oldest one is dropped and its image reused.
+ */
+class LayeredCanvas extends StackPane {
+    static final double INDEX_CELL_SIZE = 50;
+    static final int DEFAULT_CHECKPOINT_INTERVAL = 25;
+    static final long DEFAULT_CHECKPOINT_MEMORY_CAP = 64L * 1024 * 1024;
+    private final Canvas committedCanvas;
+    private final Canvas previewCanvas;
+    private final GraphicsContext committedGc;
+    private final GraphicsContext previewGc;
+    private final Color background;
+    private final List<ShapeObject> shapes;
+    private final ShapeGridIndex index;
+    private final ArrayList<Bounds> dirtyRegions = new ArrayList<>();
+    private final BitSet hits = new BitSet();
+    // the stroke being drawn, its bounding box grows with every segment
+    private PolylineShape openStroke;
+    private Bounds previewBounds;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private long checkpointMemoryCap;
+    private int maxCheckpoints;
+    // the output scale of the window, the checkpoint images are this many
+    // device pixels per canvas pixel (2 on a HiDPI screen)
+    private double checkpointScaleX = 1;
+    private double checkpointScaleY = 1;
+    // the number of shapes in each checkpoint and its image, oldest first
+    private final ArrayList<Integer> checkpointCounts = new ArrayList<>();
+    private final ArrayList<WritableImage> checkpointImages =
+            new ArrayList<>();
+    // images of dropped checkpoints, reused by the next ones
+    private final ArrayDeque<WritableImage> spareImages = new ArrayDeque<>();
+
+    /**
+     * Creates the two layers, filled with the background color.
+     *
+     * @param width      the width of the drawing area
+     * @param height     the height of the drawing area
+     * @param background the color of an empty drawing
+     * @param shapes     the shapes of the drawing, oldest first; every
+     *                   shape added to it is committed here as well
+     */
+    public LayeredCanvas(
+            double width,
+            double height,
+            Color background,
+            List<ShapeObject> shapes) {
+        this.background = background;
+        this.shapes = shapes;
+        this.index = new ShapeGridIndex(width, height, INDEX_CELL_SIZE);
+        committedCanvas = new Canvas(width, height);
+        previewCanvas = new Canvas(width, height);
+        committedGc = committedCanvas.getGraphicsContext2D();
+        previewGc = previewCanvas.getGraphicsContext2D();
+        this.getChildren().addAll(committedCanvas, previewCanvas);
+        setCheckpoints(DEFAULT_CHECKPOINT_INTERVAL,
+                DEFAULT_CHECKPOINT_MEMORY_CAP);
+        clear();
+    }
+
+    /**
+     * Configures the raster checkpoints.
+     *
+     * @param interval  a checkpoint is taken every this many shapes
+     * @param memoryCap the most bytes the checkpoint images may take, 0
+     *                  for no checkpoints (undo then replays from the
+     *                  empty canvas)
+     */
+    public void setCheckpoints(int interval, long memoryCap) {
+        if (interval <= 0 || memoryCap < 0) {
+            throw new IllegalArgumentException(
+                    "interval must be positive and memoryCap not negative");
+        }
+        this.checkpointInterval = interval;
+        this.checkpointMemoryCap = memoryCap;
+        updateMaxCheckpoints();
+    }
+
+    /**
+     * Recomputes how many checkpoint images at the current output scale fit
+     * in the memory cap, and drops the oldest checkpoints that do not.
+     */
+    private void updateMaxCheckpoints() {
+        long imageBytes = 4L
+                * (long) Math.ceil(committedCanvas.getWidth()
+                        * checkpointScaleX)
+                * (long) Math.ceil(committedCanvas.getHeight()
+                        * checkpointScaleY);
+        maxCheckpoints = (int) Math.min(
+                Integer.MAX_VALUE, checkpointMemoryCap / imageBytes);
+        while (checkpointCounts.size() > maxCheckpoints) {
+            dropCheckpoint(0);
+        }
+        spareImages.clear();
+    }
+
+    /**
+     * Rasterizes a finished shape into the committed layer.
+     *
+     * @param shape the shape to add to the drawing
+     */
+    public void commit(ShapeObject shape) {
+        openStroke = null;
+        index.add(shape.getBounds());
+        shape.draw(committedGc);
+        checkpointIfDue();
+    }
+
+    /**
+     * Rasterizes many finished shapes at once, e.g. a batch of a drawing
+     * being loaded. A checkpoint snapshots the whole canvas, so a load
+     * only takes one, after its last batch.
+     *
+     * @param batch          the shapes to add to the drawing, oldest first
+     * @param takeCheckpoint true if a checkpoint may be taken after the
+     *                       batch
+     */
+    public void commitAll(List<ShapeObject> batch, boolean takeCheckpoint) {
+        openStroke = null;
+        for (ShapeObject shape : batch) {
+            index.add(shape.getBounds());
+            shape.draw(committedGc);
+        }
+        if (takeCheckpoint) {
+            checkpointIfDue();
+        }
+    }
+
+    /**
+     * Called when the stroke being drawn is finished; a checkpoint may be
+     * taken now that it is complete.
+     */
+    public void finishStroke() {
+        if (openStroke != null) {
+            openStroke = null;
+            checkpointIfDue();
+        }
+    }
+
+    /**
+     * Removes the newest shapes from the committed layer: the regions they
+     * covered are repainted from the newest checkpoint before them.
+     *
+     * @param count the number of shapes to keep, the shape list must
+     *              already have been cut to this size
+     */
+    public void truncate(int count) {
+        for (int i = count; i < index.size(); i++) {
+            markDirty(index.getBounds(i));
+        }
+        index.truncate(count);
+        openStroke = null;
+        while (!checkpointCounts.isEmpty()
+                && checkpointCounts.get(checkpointCounts.size() - 1) > count) {
+            dropCheckpoint(checkpointCounts.size() - 1);
+        }
+        repaintDirty();
+    }
+
+    private void checkpointIfDue() {
+        int count = index.size();
+        Window window = getScene() == null ? null : getScene().getWindow();
+        double scaleX = window == null ? 1 : window.getOutputScaleX();
+        double scaleY = window == null ? 1 : window.getOutputScaleY();
+        if (scaleX != checkpointScaleX || scaleY != checkpointScaleY) {
+            // e.g. the window moved to a HiDPI screen: the images have the
+            // wrong size, undo replays from the empty canvas until the next
+            // checkpoint
+            checkpointScaleX = scaleX;
+            checkpointScaleY = scaleY;
+            while (!checkpointCounts.isEmpty()) {
+                dropCheckpoint(checkpointCounts.size() - 1);
+            }
+            updateMaxCheckpoints();
+        }
+        int lastCount = checkpointCounts.isEmpty()
+                ? 0
+                : checkpointCounts.get(checkpointCounts.size() - 1);
+        if (maxCheckpoints == 0 || count - lastCount < checkpointInterval) {
+            return;
+        }
+        WritableImage image = spareImages.poll();
+        if (image == null && checkpointCounts.size() == maxCheckpoints) {
+            // over the memory cap: the oldest checkpoint makes room
+            image = checkpointImages.get(0);
+            checkpointCounts.remove(0);
+            checkpointImages.remove(0);
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setTransform(
+                Transform.scale(checkpointScaleX, checkpointScaleY));
+        checkpointCounts.add(count);
+        checkpointImages.add(snapshotCommitted(parameters, image));
+    }
+
+    /**
+     * Snapshots the committed layer for a checkpoint. Snapshots need the
+     * JavaFX toolkit, so the tests replace this method.
+     *
+     * @param parameters the scale of the snapshot
+     * @param image      the image to reuse, or null for a new one
+     * @return the snapshot
+     */
+    WritableImage snapshotCommitted(
+            SnapshotParameters parameters,
+            WritableImage image) {
+        return committedCanvas.snapshot(parameters, image);
+    }
+
+    private void dropCheckpoint(int position) {
+        checkpointCounts.remove(position);
+        spareImages.push(checkpointImages.remove(position));
+    }
+
+    /**
+     * Rasterizes the newest segment of a stroke that is still being drawn
+     * into the committed layer; the rest of the stroke is already there.
+     *
+     * @param stroke the stroke that just got a new point
+     */
+    public void commitLastSegment(PolylineShape stroke) {
+        if (stroke != openStroke) {
+            index.add(stroke.getBounds());
+            openStroke = stroke;
+        } else {
+            index.growLast(stroke.getBounds());
+        }
+        stroke.drawLastSegment(committedGc);
+    }
+
+    /**
+     * Shows a shape that is being dragged out, replacing the previous
+     * preview. The committed layer is not touched.
+     *
+     * @param shape the shape to preview
+     */
+    public void preview(ShapeObject shape) {
+        clearPreview();
+        previewBounds = shape.getBounds();
+        shape.draw(previewGc);
+    }
+
+    /**
+     * Removes the preview shape.
+     */
+    public void clearPreview() {
+        if (previewBounds != null) {
+            Bounds pixels = toPixels(previewBounds);
+            previewGc.clearRect(pixels.getMinX(), pixels.getMinY(),
+                    pixels.getWidth(), pixels.getHeight());
+            previewBounds = null;
+        }
+    }
+
+    /**
+     * Clears both layers to the background color and forgets the shapes.
+     */
+    public void clear() {
+        committedGc.setFill(background);
+        committedGc.fillRect(0, 0,
+                committedCanvas.getWidth(), committedCanvas.getHeight());
+        previewGc.clearRect(0, 0,
+                previewCanvas.getWidth(), previewCanvas.getHeight());
+        previewBounds = null;
+        openStroke = null;
+        index.clear();
+        dirtyRegions.clear();
+        while (!checkpointCounts.isEmpty()) {
+            dropCheckpoint(checkpointCounts.size() - 1);
+        }
+    }
+
+    /**
+     * Marks a region of the committed layer to be repainted from the
+     * shapes by the next repaintDirty().
+     *
+     * @param region the region whose pixels are out of date
+     */
+    public void markDirty(Bounds region) {
+        Bounds merged = toPixels(region);
+        if (merged == null) {
+            return; // off the canvas
+        }
+        // merge with every region it overlaps, until none overlaps it
+        boolean isMerging = true;
+        while (isMerging) {
+            isMerging = false;
+            for (int i = dirtyRegions.size() - 1; i >= 0; i--) {
+                Bounds dirty = dirtyRegions.get(i);
+                if (dirty.intersects(merged)) {
+                    merged = union(dirty, merged);
+                    dirtyRegions.remove(i);
+                    isMerging = true;
+                }
+            }
+        }
+        dirtyRegions.add(merged);
+    }
+
+    /**
+     * Repaints the dirty regions: the committed layer is clipped to their
+     * union, restored from the newest checkpoint (or filled with the
+     * background if there is none) and only the shapes after the checkpoint
+     * that intersect them are drawn again, oldest first.
+     */
+    public void repaintDirty() {
+        if (dirtyRegions.isEmpty()) {
+            return;
+        }
+        committedGc.save();
+        committedGc.beginPath();
+        for (Bounds dirty : dirtyRegions) {
+            committedGc.rect(dirty.getMinX(), dirty.getMinY(),
+                    dirty.getWidth(), dirty.getHeight());
+        }
+        committedGc.clip();
+        committedGc.setFill(background);
+        int last = checkpointCounts.size() - 1;
+        WritableImage checkpoint =
+                last >= 0 ? checkpointImages.get(last) : null;
+        int replayFrom = last >= 0 ? checkpointCounts.get(last) : 0;
+        hits.clear();
+        for (Bounds dirty : dirtyRegions) {
+            if (checkpoint != null) {
+                committedGc.drawImage(checkpoint,
+                        dirty.getMinX() * checkpointScaleX,
+                        dirty.getMinY() * checkpointScaleY,
+                        dirty.getWidth() * checkpointScaleX,
+                        dirty.getHeight() * checkpointScaleY,
+                        dirty.getMinX(), dirty.getMinY(),
+                        dirty.getWidth(), dirty.getHeight());
+            } else {
+                committedGc.fillRect(dirty.getMinX(), dirty.getMinY(),
+                        dirty.getWidth(), dirty.getHeight());
+            }
+            index.query(dirty, hits);
+        }
+        for (int i = hits.nextSetBit(replayFrom); i >= 0;
+                i = hits.nextSetBit(i + 1)) {
+            shapes.get(i).draw(committedGc);
+        }
+        committedGc.restore();
+        dirtyRegions.clear();
+    }
+
+    /**
+     * Grows a region to whole pixels plus one pixel for anti-aliasing and
+     * cuts it to the canvas.
+     *
+     * @return the region in pixels, or null if it is off the canvas
+     */
+    private Bounds toPixels(Bounds region) {
+        double minX = Math.max(0, Math.floor(region.getMinX()) - 1);
+        double minY = Math.max(0, Math.floor(region.getMinY()) - 1);
+        double maxX = Math.min(committedCanvas.getWidth(),
+                Math.ceil(region.getMaxX()) + 1);
+        double maxY = Math.min(committedCanvas.getHeight(),
+                Math.ceil(region.getMaxY()) + 1);
+        if (minX >= maxX || minY >= maxY) {
+            return null;
+        }
+        return new BoundingBox(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    private static Bounds union(Bounds a, Bounds b) {
+        double minX = Math.min(a.getMinX(), b.getMinX());
+        double minY = Math.min(a.getMinY(), b.getMinY());
+        return new BoundingBox(minX, minY,
+                Math.max(a.getMaxX(), b.getMaxX()) - minX,
+                Math.max(a.getMaxY(), b.getMaxY()) - minY);
+    }
+
+    /**
+     * The index of the committed shapes.
+     */
+    public ShapeGridIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * The number of shapes in each raster checkpoint kept, oldest first.
+     */
+    public List<Integer> getCheckpointShapeCounts() {
+        return Collections.unmodifiableList(checkpointCounts);
+    }
+}
+
+/**
+ * DrawingFormat is the binary file format of a drawing (a list of
+ * ShapeObjects), written by DrawingWriter and read by DrawingReader.
+ *
+ * A file is: int magic "SPD1", byte version, varint shape count, then per
+ * shape a byte type, a color and the type's fields, oldest shape first.
+ * - A color is a varint index into the palette of the colors seen so far;
+ * the index one past the end is followed by 4 bytes RGBA, the next
+ * palette entry. A drawing uses a handful of colors, so a color is
+ * usually one byte and the palette is built while streaming.
+ * - Coordinates are fixed point, 1/16 pixel, and written as the zigzag
+ * varint of their difference to the previous x (or y) coordinate in the
+ * file. Neighbouring points are close, so a coordinate is usually one or
+ * two bytes instead of an 8 byte double.
+ * - Pen widths and point counts are varints.
+ * A line segment or line is pen width, start and end; a polyline is pen
+ * width, point count and the points; the filled shapes are the start and
+ * end of the drag.
+ */
+final class DrawingFormat {
+    static final int MAGIC = 0x53504431; // "SPD1"
+    static final int VERSION = 1;
+    static final double COORDINATE_SCALE = 16;
+    static final int BUFFER_SIZE = 64 * 1024;
+    // the fewest bytes a shape takes: a polyline of one point, or a filled
+    // shape, with a one byte color and one byte coordinates
+    static final int MIN_SHAPE_BYTES = 6;
+    static final int LINE_SEGMENT = 1;
+    static final int LINE = 2;
+    static final int POLYLINE = 3;
+    static final int RECTANGLE = 4;
+    static final int OVAL = 5;
+    static final int ROUNDED_RECTANGLE = 6;
+
+    private DrawingFormat() {
+    }
+
+    /**
+     * Writes a whole drawing to a file. The drawing is written to a
+     * temporary file next to it first and then moved over it, so a failed
+     * save leaves the old file as it was.
+     *
+     * @param file   the file to write, replaced if it exists
+     * @param shapes the shapes of the drawing, oldest first
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, List<ShapeObject> shapes) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temporary = Files.createTempFile(absolute.getParent(),
+                absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DrawingWriter writer =
+                    new DrawingWriter(temporary, shapes.size())) {
+                for (ShapeObject shape : shapes) {
+                    writer.write(shape);
+                }
+            }
+            try {
+                Files.move(temporary, absolute,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, absolute,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a whole drawing from a file.
+     *
+     * @param file the file to read
+     * @return the shapes of the drawing, oldest first
+     * @throws IOException if the file cannot be read or is not a drawing
+     */
+    static List<ShapeObject> read(Path file) throws IOException {
+        try (DrawingReader reader = new DrawingReader(file)) {
+            List<ShapeObject> shapes = new ArrayList<>(reader.getShapeCount());
+            ShapeObject shape;
+            while ((shape = reader.read()) != null) {
+                shapes.add(shape);
+            }
+            return shapes;
+        }
+    }
+}
+
+/**
+ * DrawingWriter streams shapes into a drawing file (see DrawingFormat)
+ * through a FileChannel and one reused ByteBuffer.
+ */
+class DrawingWriter implements AutoCloseable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+            ByteBuffer.allocateDirect(DrawingFormat.BUFFER_SIZE);
+    private final Map<Color, Integer> palette = new HashMap<>();
+    private long previousX;
+    private long previousY;
+
+    /**
+     * Creates the file and writes its header.
+     *
+     * @param file       the file to write, replaced if it exists
+     * @param shapeCount the number of shapes that will be written
+     * @throws IOException if the file cannot be written
+     */
+    public DrawingWriter(Path file, int shapeCount) throws IOException {
+        channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        buffer.putInt(DrawingFormat.MAGIC);
+        buffer.put((byte) DrawingFormat.VERSION);
+        writeVarLong(shapeCount);
+    }
+
+    /**
+     * Appends a shape.
+     *
+     * @param shape the shape to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(ShapeObject shape) throws IOException {
+        if (shape instanceof LineSegmentShape) {
+            LineSegmentShape segment = (LineSegmentShape) shape;
+            writeHeader(DrawingFormat.LINE_SEGMENT, segment.getColor());
+            writeVarLong(segment.getPenWidth());
+            writePoint(segment.getStart().getX(), segment.getStart().getY());
+            writePoint(segment.getEnd().getX(), segment.getEnd().getY());
+        } else if (shape instanceof LineShape) {
+            LineShape line = (LineShape) shape;
+            writeHeader(DrawingFormat.LINE, line.getColor());
+            writeVarLong(line.getPenWidth());
+            writePoint(line.getStart().getX(), line.getStart().getY());
+            writePoint(line.getEnd().getX(), line.getEnd().getY());
+        } else if (shape instanceof PolylineShape) {
+            PolylineShape stroke = (PolylineShape) shape;
+            writeHeader(DrawingFormat.POLYLINE, stroke.getColor());
+            writeVarLong(stroke.getPenWidth());
+            writeVarLong(stroke.getPointCount());
+            for (int i = 0; i < stroke.getPointCount(); i++) {
+                writePoint(stroke.getX(i), stroke.getY(i));
+            }
+        } else if (shape instanceof FilledPolyShape) {
+            FilledPolyShape filled = (FilledPolyShape) shape;
+            writeHeader(typeOf(filled), filled.color);
+            writePoint(filled.xInital, filled.yInital);
+            writePoint(filled.xPoints, filled.yPoints);
+        } else {
+            throw new IllegalArgumentException(
+                    "cannot write a " + shape.getClass().getName());
+        }
+    }
+
+    private static int typeOf(FilledPolyShape shape) {
+        if (shape instanceof RectangleShape) {
+            return DrawingFormat.RECTANGLE;
+        } else if (shape instanceof OvalShape) {
+            return DrawingFormat.OVAL;
+        } else if (shape instanceof RoundedRectangleShape) {
+            return DrawingFormat.ROUNDED_RECTANGLE;
+        }
+        throw new IllegalArgumentException(
+                "cannot write a " + shape.getClass().getName());
+    }
+
+    private void writeHeader(int type, Color color) throws IOException {
+        ensure(1);
+        buffer.put((byte) type);
+        Integer index = palette.get(color);
+        if (index != null) {
+            writeVarLong(index);
+        } else {
+            // a new color: the next index, then the color itself
+            writeVarLong(palette.size());
+            palette.put(color, palette.size());
+            ensure(4);
+            buffer.put((byte) Math.round(color.getRed() * 255));
+            buffer.put((byte) Math.round(color.getGreen() * 255));
+            buffer.put((byte) Math.round(color.getBlue() * 255));
+            buffer.put((byte) Math.round(color.getOpacity() * 255));
+        }
+    }
+
+    private void writePoint(double x, double y) throws IOException {
+        long fixedX = Math.round(x * DrawingFormat.COORDINATE_SCALE);
+        long fixedY = Math.round(y * DrawingFormat.COORDINATE_SCALE);
+        writeVarLong(zigzag(fixedX - previousX));
+        writeVarLong(zigzag(fixedY - previousY));
+        previousX = fixedX;
+        previousY = fixedY;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Makes room for the given number of bytes, writing the buffer to the
+     * channel when it is too full.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
+
+/**
+ * DrawingReader streams the shapes of a drawing file (see DrawingFormat)
+ * one at a time through a FileChannel, so a drawing can be shown while the
+ * rest of the file is still being read.
+ */
+class DrawingReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+            ByteBuffer.allocateDirect(DrawingFormat.BUFFER_SIZE);
+    private final ArrayList<Color> palette = new ArrayList<>();
+    private final int shapeCount;
+    private int readCount;
+    private long previousX;
+    private long previousY;
+
+    /**
+     * Opens the file and reads its header.
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be read or is not a drawing
+     */
+    public DrawingReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            buffer.limit(0);
+            if (readInt() != DrawingFormat.MAGIC) {
+                throw new IOException(file + " is not a drawing");
+            }
+            int version = readByte();
+            if (version != DrawingFormat.VERSION) {
+                throw new IOException(
+                        "unsupported drawing version " + version);
+            }
+            long count = readVarLong();
+            // a damaged count must not make the caller allocate for it
+            long remaining = channel.size() - channel.position()
+                    + buffer.remaining();
+            if (count < 0 || count > Integer.MAX_VALUE
+                    || count > remaining / DrawingFormat.MIN_SHAPE_BYTES) {
+                throw new IOException("a drawing of " + remaining
+                        + " bytes cannot hold " + count + " shapes");
+            }
+            shapeCount = (int) count;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The number of shapes in the file, e.g. to show the progress of a
+     * load.
+     */
+    public int getShapeCount() {
+        return shapeCount;
+    }
+
+    /**
+     * Reads the next shape.
+     *
+     * @return the next shape, or null after the last one
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public ShapeObject read() throws IOException {
+        if (readCount == shapeCount) {
+            return null;
+        }
+        readCount++;
+        int type = readByte();
+        Color color = readColor();
+        switch (type) {
+            case DrawingFormat.LINE_SEGMENT: {
+                int penWidth = (int) readVarLong();
+                return new LineSegmentShape(
+                        readPoint(), readPoint(), color, penWidth);
+            }
+            case DrawingFormat.LINE: {
+                int penWidth = (int) readVarLong();
+                return new LineShape(
+                        readPoint(), readPoint(), color, penWidth);
+            }
+            case DrawingFormat.POLYLINE:
+                return readPolyline(color);
+            case DrawingFormat.RECTANGLE:
+                return new RectangleShape(readX(), readY(), readX(), readY(),
+                        color);
+            case DrawingFormat.OVAL:
+                return new OvalShape(readX(), readY(), readX(), readY(),
+                        color);
+            case DrawingFormat.ROUNDED_RECTANGLE:
+                return new RoundedRectangleShape(readX(), readY(), readX(),
+                        readY(), color);
+            default:
+                throw new IOException("unknown shape type " + type);
+        }
+    }
+
+    private PolylineShape readPolyline(Color color) throws IOException {
+        int penWidth = (int) readVarLong();
+        long pointCount = readVarLong();
+        if (pointCount < 1) {
+            throw new IOException("a polyline without points");
+        }
+        PolylineShape stroke = new PolylineShape(
+                readX(), readY(), color, penWidth);
+        for (long i = 1; i < pointCount; i++) {
+            stroke.addPoint(readX(), readY());
+        }
+        // trims the point arrays, a tolerance of 0 drops no point
+        stroke.simplify(0);
+        return stroke;
+    }
+
+    private Color readColor() throws IOException {
+        int index = (int) readVarLong();
+        if (index == palette.size()) {
+            int red = readByte();
+            int green = readByte();
+            int blue = readByte();
+            int opacity = readByte();
+            palette.add(Color.rgb(red, green, blue, opacity / 255.0));
+        } else if (index > palette.size()) {
+            throw new IOException("unknown color " + index);
+        }
+        return palette.get(index);
+    }
+
+    private Point2D readPoint() throws IOException {
+        return new Point2D(readX(), readY());
+    }
+
+    /**
+     * Reads an x coordinate; every point is an x followed by a y.
+     */
+    private double readX() throws IOException {
+        previousX += unzigzag(readVarLong());
+        return previousX / DrawingFormat.COORDINATE_SCALE;
+    }
+
+    private double readY() throws IOException {
+        previousY += unzigzag(readVarLong());
+        return previousY / DrawingFormat.COORDINATE_SCALE;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    /**
+     * Reads an unsigned byte, refilling the buffer from the channel when
+     * it is empty.
+     */
+    private int readByte() throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0) {
+                throw new EOFException("the drawing ends early");
+            }
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
+
+/**
+ * UndoHistory undoes and redoes the shapes of a drawing.
+ *
+ * The shape list of the drawing is the command list: undo removes its
+ * newest shape and keeps it for redo, redo adds it back. The canvas only
+ * repaints the region the shape covered, from its nearest raster
+ * checkpoint (see LayeredCanvas). Drawing a new shape forgets the undone
+ * shapes, and clearing the drawing forgets the whole history.
+ */
+class UndoHistory {
+    private final List<ShapeObject> shapes;
+    private final LayeredCanvas canvas;
+    private final ArrayDeque<ShapeObject> undoneShapes = new ArrayDeque<>();
+
+    /**
+     * Creates the history of a drawing.
+     *
+     * @param shapes the shapes of the drawing, oldest first
+     * @param canvas the canvas the shapes are committed to
+     */
+    public UndoHistory(List<ShapeObject> shapes, LayeredCanvas canvas) {
+        this.shapes = shapes;
+        this.canvas = canvas;
+    }
+
+    /**
+     * Called when the user draws a new shape: the undone shapes can no
+     * longer be redone.
+     */
+    public void shapeAdded() {
+        undoneShapes.clear();
+    }
+
+    /**
+     * Removes the newest shape of the drawing.
+     *
+     * @return false if there was nothing to undo
+     */
+    public boolean undo() {
+        if (shapes.isEmpty()) {
+            return false;
+        }
+        undoneShapes.push(shapes.remove(shapes.size() - 1));
+        canvas.truncate(shapes.size());
+        return true;
+    }
+
+    /**
+     * Adds the most recently undone shape back to the drawing.
+     *
+     * @return false if there was nothing to redo
+     */
+    public boolean redo() {
+        ShapeObject shape = undoneShapes.poll();
+        if (shape == null) {
+            return false;
+        }
+        shapes.add(shape);
+        canvas.commit(shape);
+        return true;
+    }
+
+    /**
+     * Forgets the history, e.g. when the drawing is cleared.
+     */
+    public void clear() {
+        undoneShapes.clear();
+    }
+}
+
 /**
  * A program where the user can sketch in a variety of colors and tools.
  * A color palette list of paint tools is shown along the right edge of the
@@ -826,12 +2243,21 @@ public class SimplePaintObjects extends Application {
         Application.launch(args);
     }
 
-    GraphicsContext gc; // The graphics context for drawing on the canvas.
-    private Point2D start; // The start point of the mouse drag event.
+    LayeredCanvas canvas; // The committed and preview layers.
+    // The start point of the mouse drag event, null when no shape is
+    // being drawn
+    private Point2D start;
     private Point2D end; // The end point of the mouse drag event.
     private ColorTool currentColorTool; // The current color tool.
     private ShapeTool currentShapeTool; // The current shape tool.
     private ArrayList<ShapeObject> drawnShapeObjects = new ArrayList<>();
+    private UndoHistory history; // undo and redo of drawnShapeObjects
+    private ActionTool undoTool; // Shortcut+Z
+    private ActionTool redoTool; // Shortcut+Y or Shortcut+Shift+Z
+    private Stage stage; // the window, for the file dialogs
+    // increased by every load and clear, so an older load stops showing
+    private long loadGeneration;
+    private boolean isLoading; // drawing is ignored while a file loads
 
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Constants - static defined constants in lieu of magic numbers
@@ -846,6 +2272,7 @@ public class SimplePaintObjects extends Application {
     static final int APPLICATION_H = (int) ((double) (APPLICATION_W / 1.5));
     static final int CANVAS_H = APPLICATION_H + (CELL_H + PADDING * 3) * 2;
     static final int CANVAS_W = APPLICATION_W;
+    static final int LOAD_BATCH_SIZE = 10_000; // shapes shown at a time
     static final Color[] palette = {
             Color.BLACK,
             Color.RED,
@@ -864,10 +2291,10 @@ public class SimplePaintObjects extends Application {
      * @return the canvas to the caller of this method (makeCanvas)
      */
     private Node makeCanvas() {
-        Canvas canvas = new Canvas(CANVAS_W, CANVAS_H);
-        // Get the graphics context for drawing on the canvas
-        gc = canvas.getGraphicsContext2D();
-        clearCanvas(); // clear the canvas to white background color (default)
+        // starts out cleared to a white background color (default)
+        canvas = new LayeredCanvas(
+                CANVAS_W, CANVAS_H, Color.WHITE, drawnShapeObjects);
+        history = new UndoHistory(drawnShapeObjects, canvas);
         canvas.setOnMousePressed(e -> mousePressed(e));
         canvas.setOnMouseDragged(e -> mouseDragged(e));
         canvas.setOnMouseReleased(e -> mouseReleased(e));
@@ -904,6 +2331,9 @@ public class SimplePaintObjects extends Application {
         colorPane.getChildren().add( //
                 addMouseHandlerToClearTool(
                         new ActionTool("Clear", this::clearCanvas)));
+        // Add a redo button under the clear button
+        redoTool = new ActionTool("Redo", this::redo);
+        colorPane.getChildren().add(addMouseHandlerToActionTool(redoTool));
         return colorPane;
     }
 
@@ -954,6 +2384,49 @@ public class SimplePaintObjects extends Application {
         return tool;
     }
 
+    /**
+     * Adds a mouse handler to an ActionTool object that only runs its
+     * action, e.g. undo or redo.
+     *
+     * @param tool the ActionTool object to which the mouse handler is added
+     * @return the ActionTool object with the mouse handler added to it
+     */
+    private ActionTool addMouseHandlerToActionTool(ActionTool tool) {
+        tool.setOnMousePressed(value -> tool.activate());
+        tool.setOnMouseReleased(value -> tool.deactivate());
+        return tool;
+    }
+
+    /**
+     * Adds the keyboard shortcuts of the undo and redo tools to the scene.
+     * A shortcut presses and releases its tool, as a click would.
+     * "Shortcut" is Ctrl, or Cmd on macOS.
+     *
+     * @param scene the scene of the application
+     */
+    private void addShortcuts(Scene scene) {
+        scene.getAccelerators().put(
+                KeyCombination.keyCombination("Shortcut+Z"),
+                () -> pressActionTool(undoTool));
+        scene.getAccelerators().put(
+                KeyCombination.keyCombination("Shortcut+Y"),
+                () -> pressActionTool(redoTool));
+        scene.getAccelerators().put(
+                KeyCombination.keyCombination("Shortcut+Shift+Z"),
+                () -> pressActionTool(redoTool));
+        scene.getAccelerators().put(
+                KeyCombination.keyCombination("Shortcut+S"),
+                this::saveDrawing);
+        scene.getAccelerators().put(
+                KeyCombination.keyCombination("Shortcut+O"),
+                this::loadDrawing);
+    }
+
+    private void pressActionTool(ActionTool tool) {
+        tool.activate();
+        tool.deactivate();
+    }
+
     /**
      * The current tool that is selected for drawing. This is null if no tool
      * is selected.
@@ -1008,6 +2481,9 @@ public class SimplePaintObjects extends Application {
         // add a rounded rectangle tool to the tool pane (VBox)
         toolPane.getChildren().add(
                 addMouseHandlerToShapeTool(new RoundedRectangleTool()));
+        // add an undo button under the shape tools (VBox)
+        undoTool = new ActionTool("Undo", this::undo);
+        toolPane.getChildren().add(addMouseHandlerToActionTool(undoTool));
     }
 
     private ShapeTool addMouseHandlerToShapeTool(ShapeTool tool) {
@@ -1071,6 +2547,9 @@ public class SimplePaintObjects extends Application {
      * @param event the mouse event that was generated when the user clicked
      */
     private void mousePressed(MouseEvent event) {
+        if (isLoading) {
+            return;
+        }
         // save the start point
         start = new Point2D(event.getX(), event.getY());
     }
@@ -1082,16 +2561,18 @@ public class SimplePaintObjects extends Application {
      * @param event the mouse event that was generated when the user dragged
      */
     private void mouseDragged(MouseEvent event) {
-        clearCanvas();
-        // draw all the shapes that have been drawn so far
-        for (ShapeObject shapeObject : drawnShapeObjects) {
-            shapeObject.draw(gc); // draw the shape object on the canvas (gc)
+        if (isLoading || start == null) {
+            return;
         }
+        /*
+         * the shapes drawn so far stay in the committed layer, only the new
+         * segment or the preview is drawn
+         */
         end = new Point2D(event.getX(), event.getY());
         if (currentShapeTool.getPaintShape().dragUpdate()) {
             currentShapeTool.draw(
-                    // the graphics context of the canvas (gc)
-                    gc,
+                    // unused, the tool builds the shape and the layers draw it
+                    null,
                     // the current color of the color tool (currentColorTool)
                     currentColorTool.getColor(),
                     /*
@@ -1105,10 +2586,18 @@ public class SimplePaintObjects extends Application {
                      */
                     end);
             /*
-             * add the shape to the list of drawn shapes (drawnShapeObjects)
-             * commit the drawn shape onto the canvas
+             * add the stroke to the list of drawn shapes (drawnShapeObjects)
+             * on its first segment, and commit the new segment onto the
+             * canvas
              */
-            drawnShapeObjects.add(currentShapeTool.getPaintShape());
+            PolylineShape stroke =
+                    (PolylineShape) currentShapeTool.getPaintShape();
+            if (drawnShapeObjects.isEmpty() || drawnShapeObjects
+                    .get(drawnShapeObjects.size() - 1) != stroke) {
+                drawnShapeObjects.add(stroke);
+                history.shapeAdded();
+            }
+            canvas.commitLastSegment(stroke);
             /*
              * save the current point as the previous point
              * (prevX, prevY) for the next mouse drag event
@@ -1116,8 +2605,8 @@ public class SimplePaintObjects extends Application {
             start = end;
         } else {
             currentShapeTool.draw(
-                    // the graphics context of the canvas (gc)
-                    gc,
+                    // unused, the tool builds the shape and the layers draw it
+                    null,
                     // the current color of the color tool (currentColorTool)
                     currentColorTool.getColor(),
                     /*
@@ -1130,8 +2619,8 @@ public class SimplePaintObjects extends Application {
                      * dragged
                      */
                     end);
-            // draw the shape object on the canvas (gc) - see the preview
-            currentShapeTool.getPaintShape().draw(gc);
+            // draw the shape object on the preview layer - see the preview
+            canvas.preview(currentShapeTool.getPaintShape());
         }
     }
 
@@ -1142,9 +2631,43 @@ public class SimplePaintObjects extends Application {
      * @param event the mouse event that was generated when the user released
      */
     private void mouseReleased(MouseEvent event) {
+        if (isLoading || start == null) {
+            start = null; // a drag cut short by a load is over as well
+            return;
+        }
         if (currentShapeTool.getPaintShape().dragUpdate() == false) {
             drawnShapeObjects.add(currentShapeTool.getPaintShape());
+            history.shapeAdded();
+            // move the preview into the committed layer
+            canvas.clearPreview();
+            canvas.commit(currentShapeTool.getPaintShape());
+        }
+        currentShapeTool.finish();
+        canvas.finishStroke();
+        start = null;
+    }
+
+    /**
+     * Undoes the newest shape. Ignored while a file loads, the shape would
+     * come back after the shapes loaded later, and while a shape is being
+     * drawn, the next drag would add it back.
+     */
+    private void undo() {
+        if (isLoading || start != null) {
+            return;
+        }
+        history.undo();
+    }
+
+    /**
+     * Redoes the most recently undone shape, ignored for the same reasons
+     * as undo().
+     */
+    private void redo() {
+        if (isLoading || start != null) {
+            return;
         }
+        history.redo();
     }
 
     /**
@@ -1156,13 +2679,142 @@ public class SimplePaintObjects extends Application {
      * It is not called when the user is moving the mouse.
      */
     private void clearCanvas() {
-        gc.setFill(Color.WHITE);
-        gc.fillRect(0, 0, CANVAS_W, CANVAS_H);
+        canvas.clear();
+        history.clear();
+        // a drawing still loading is not shown any further
+        loadGeneration++;
+        isLoading = false;
+    }
+
+    /**
+     * Creates the file dialog for drawing files.
+     *
+     * @param title the title of the dialog
+     * @return the file dialog
+     */
+    private FileChooser makeDrawingChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                "Drawings (*.spd)", "*.spd"));
+        return chooser;
+    }
+
+    /**
+     * Saves the drawing to a file the user picks (Shortcut+S), see
+     * DrawingFormat. Not while a file loads, only part of it would be
+     * saved.
+     */
+    private void saveDrawing() {
+        if (isLoading) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION,
+                    "The drawing is still loading, save it when it is done.");
+            alert.initOwner(stage);
+            alert.show();
+            return;
+        }
+        File file = makeDrawingChooser("Save Drawing").showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        try {
+            DrawingFormat.write(file.toPath(), drawnShapeObjects);
+        } catch (IOException | RuntimeException e) {
+            showError("Cannot save " + file, e);
+        }
+    }
+
+    /**
+     * Replaces the drawing with one from a file the user picks
+     * (Shortcut+O). The file is read on a background thread and every
+     * LOAD_BATCH_SIZE shapes are handed to the JavaFX thread, so the
+     * drawing appears while the rest of the file is still being read.
+     */
+    private void loadDrawing() {
+        File file = makeDrawingChooser("Open Drawing").showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        clearCanvas();
+        drawnShapeObjects.clear();
+        isLoading = true;
+        long generation = loadGeneration;
+        Thread loader = new Thread(
+                () -> streamDrawing(file.toPath(), generation),
+                "drawing-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Reads a drawing in batches, on the loader thread.
+     *
+     * @param file       the drawing file
+     * @param generation the load this is, see loadGeneration
+     */
+    private void streamDrawing(Path file, long generation) {
+        List<ShapeObject> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        try (DrawingReader reader = new DrawingReader(file)) {
+            ShapeObject shape;
+            while ((shape = reader.read()) != null) {
+                batch.add(shape);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    showLoadedBatch(batch, generation, false);
+                    batch = new ArrayList<>(LOAD_BATCH_SIZE);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            showError("Cannot load " + file, e);
+        } finally {
+            // whatever was read is shown, and drawing is possible again
+            showLoadedBatch(batch, generation, true);
+        }
+    }
+
+    /**
+     * Adds a batch of loaded shapes to the drawing, on the JavaFX thread.
+     *
+     * @param batch      the shapes, oldest first
+     * @param generation the load they belong to
+     * @param isLast     true for the last batch of the file
+     */
+    private void showLoadedBatch(
+            List<ShapeObject> batch,
+            long generation,
+            boolean isLast) {
+        Platform.runLater(() -> {
+            if (generation != loadGeneration) {
+                return; // cleared, or another file is loading
+            }
+            drawnShapeObjects.addAll(batch);
+            canvas.commitAll(batch, isLast);
+            if (isLast) {
+                isLoading = false;
+            }
+        });
+    }
+
+    /**
+     * Tells the user that saving or loading failed, on the JavaFX thread.
+     *
+     * @param message what failed
+     * @param e       why it failed
+     */
+    private void showError(String message, Exception e) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.ERROR,
+                    message + ": " + e.getMessage());
+            alert.initOwner(stage);
+            alert.show();
+        });
     }
 
     @Override
     public void start(Stage primaryStage) throws Exception {
-        primaryStage.setScene(new Scene(makeRootPane()));
+        stage = primaryStage;
+        Scene scene = new Scene(makeRootPane());
+        addShortcuts(scene);
+        primaryStage.setScene(scene);
         primaryStage.setTitle("Simple Paint Objects");
         primaryStage.show();
     }
@@ -0,0 +1,159 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class UndoHistoryTest {
+    private static final int WIDTH = 100;
+    private static final int HEIGHT = 80;
+    private static final long IMAGE_BYTES = 4L * WIDTH * HEIGHT;
+    private List<ShapeObject> shapes;
+    private SnapshotCountingCanvas canvas;
+    private UndoHistory history;
+
+    /**
+     * A LayeredCanvas whose checkpoints are blank images, snapshots need
+     * the JavaFX toolkit.
+     */
+    private static class SnapshotCountingCanvas extends LayeredCanvas {
+        private int snapshotCount;
+        private int newImageCount;
+
+        SnapshotCountingCanvas(List<ShapeObject> shapes) {
+            super(WIDTH, HEIGHT, Color.WHITE, shapes);
+        }
+
+        @Override
+        WritableImage snapshotCommitted(
+                SnapshotParameters parameters,
+                WritableImage image) {
+            this.snapshotCount++;
+            if (image == null) {
+                this.newImageCount++;
+                image = new WritableImage(WIDTH, HEIGHT);
+            }
+            return image;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.shapes = new ArrayList<>();
+        this.canvas = new SnapshotCountingCanvas(this.shapes);
+        // a checkpoint every 2 shapes, at most 2 of them
+        this.canvas.setCheckpoints(2, 2 * IMAGE_BYTES);
+        this.history = new UndoHistory(this.shapes, this.canvas);
+    }
+
+    /**
+     * @brief Test that only the newest checkpoints within the memory cap are
+     *        kept, the oldest image being reused for the next one.
+     * @throws Exception
+     */
+    @Test
+    public void commit_keepsTheNewestCheckpoints() throws Exception {
+        drawShapes(6);
+        assertEquals(Arrays.asList(4, 6),
+                this.canvas.getCheckpointShapeCounts());
+        assertEquals(3, this.canvas.snapshotCount);
+        assertEquals(2, this.canvas.newImageCount);
+        assertEquals(6, this.canvas.getIndex().size());
+    }
+
+    /**
+     * @brief Test that undo cuts the shape list and the index and drops the
+     *        checkpoints that contain an undone shape.
+     * @throws Exception
+     */
+    @Test
+    public void undo_dropsCheckpointsOfUndoneShapes() throws Exception {
+        drawShapes(6);
+        assertTrue(this.history.undo());
+        assertEquals(5, this.shapes.size());
+        assertEquals(5, this.canvas.getIndex().size());
+        assertEquals(Arrays.asList(4),
+                this.canvas.getCheckpointShapeCounts());
+        assertTrue(this.history.undo());
+        assertEquals(Arrays.asList(4),
+                this.canvas.getCheckpointShapeCounts());
+        assertTrue(this.history.undo());
+        assertEquals(3, this.shapes.size());
+        assertEquals(3, this.canvas.getIndex().size());
+        assertTrue(this.canvas.getCheckpointShapeCounts().isEmpty());
+    }
+
+    /**
+     * @brief Test that redo adds the undone shapes back, newest undone
+     *        first, and takes its checkpoint in a reused image.
+     * @throws Exception
+     */
+    @Test
+    public void redo_restoresUndoneShapes() throws Exception {
+        drawShapes(6);
+        List<ShapeObject> drawn = new ArrayList<>(this.shapes);
+        for (int i = 0; i < 3; i++) {
+            this.history.undo();
+        }
+        assertTrue(this.history.redo());
+        assertEquals(drawn.subList(0, 4), this.shapes);
+        assertEquals(4, this.canvas.getIndex().size());
+        assertEquals(Arrays.asList(4),
+                this.canvas.getCheckpointShapeCounts());
+        assertEquals(2, this.canvas.newImageCount);
+        assertTrue(this.history.redo());
+        assertTrue(this.history.redo());
+        assertEquals(drawn, this.shapes);
+        assertFalse(this.history.redo());
+    }
+
+    /**
+     * @brief Test that drawing a new shape forgets the undone shapes.
+     * @throws Exception
+     */
+    @Test
+    public void shapeAdded_forgetsUndoneShapes() throws Exception {
+        drawShapes(3);
+        this.history.undo();
+        drawShapes(1);
+        assertFalse(this.history.redo());
+        assertEquals(3, this.shapes.size());
+        assertEquals(3, this.canvas.getIndex().size());
+    }
+
+    /**
+     * @brief Test that undo on an empty drawing does nothing, and that no
+     *        snapshot is taken when checkpoints are disabled.
+     * @throws Exception
+     */
+    @Test
+    public void undo_onEmptyDrawing_andWithoutCheckpoints() throws Exception {
+        assertFalse(this.history.undo());
+        this.canvas.setCheckpoints(2, 0);
+        drawShapes(10);
+        assertTrue(this.history.undo());
+        assertEquals(0, this.canvas.snapshotCount);
+        assertTrue(this.canvas.getCheckpointShapeCounts().isEmpty());
+        assertEquals(9, this.canvas.getIndex().size());
+    }
+
+    private void drawShapes(int count) {
+        for (int i = 0; i < count; i++) {
+            int offset = this.shapes.size() * 10;
+            ShapeObject shape = new RectangleShape(offset, offset,
+                    offset + 20, offset + 15, Color.BLUE);
+            this.shapes.add(shape);
+            this.history.shapeAdded();
+            this.canvas.commit(shape);
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.SplittableRandom;
+
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.event.EventHandler;
@@ -342,19 +344,46 @@ class Ball extends PhysicsObject {
  * 
  */
 class Pong extends Group {
+    /**
+     * The ball position is printed at most twice a second, not every frame.
+     */
+    private static final long BALL_PRINT_INTERVAL_NANOS = 500_000_000L;
 
     /**
      * Initialize the ball's speed along the y-axis
      */
     private static final int BALL_INITAL_Y_SPEED = 5;
 
+    private static final SplittableRandom RANDOM =
+            new SplittableRandom(ballSeed());
+
+    /**
+     * The seed of the ball's start position is -Drng.seed, or the clock when
+     * that is missing or not a number. Printing it lets a game be replayed.
+     */
+    private static long ballSeed() {
+        String property = System.getProperty("rng.seed");
+        long seed = System.nanoTime();
+        if (property != null) {
+            try {
+                seed = Long.parseLong(property.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("ignoring -Drng.seed=" + property
+                        + ", it is not a number");
+            }
+        }
+        System.err.println("rng.seed=" + seed
+                + " (repeat with -Drng.seed=" + seed + ")");
+        return seed;
+    }
+
     private static final int _1_3RD_APP_HEIGHT_FROM_TOP = OPongApp
             .getAppH() / 3;
 
     // game objects
     // private Paddle paddle;
     private Ball ball = new Ball(
-            Math.random() *
+            RANDOM.nextDouble() *
                     (OPongApp.getAppW()
                             - Ball.getBallRadius()),
             _1_3RD_APP_HEIGHT_FROM_TOP,
@@ -364,6 +393,8 @@ class Pong extends Group {
     // create game objects
     // paddle = new Paddle(0, 0, 0, 0);
 
+    private long lastBallPrint;
+
     public Ball getBall() {
         return ball;
     }
@@ -388,7 +419,11 @@ class Pong extends Group {
                 }
                     
                 
-                System.out.println("ball.getTranslateY() = " + ball.getObject().getTranslateY());
+                if (now - lastBallPrint >= BALL_PRINT_INTERVAL_NANOS) {
+                    lastBallPrint = now;
+                    System.out.println("ball.getTranslateY() = "
+                            + ball.getObject().getTranslateY());
+                }
 
 
             }
@@ -1,3 +1,5 @@
+import java.util.SplittableRandom;
+
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.event.EventHandler;
@@ -44,6 +46,30 @@ import javax.sound.midi.Synthesizer;
  */
 public class PongApp extends Application {
 
+    // where the ball starts, see ballSeed()
+    private static final SplittableRandom RANDOM =
+            new SplittableRandom(ballSeed());
+
+    /**
+     * @return the seed given with -Drng.seed, or else a new one; it is
+     *         printed, so the same serve can be seen again
+     */
+    private static long ballSeed() {
+        String property = System.getProperty("rng.seed");
+        long seed = System.nanoTime();
+        if (property != null) {
+            try {
+                seed = Long.parseLong(property.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("ignoring -Drng.seed=" + property
+                        + ", it is not a number");
+            }
+        }
+        System.err.println("rng.seed=" + seed
+                + " (repeat with -Drng.seed=" + seed + ")");
+        return seed;
+    }
+
     /**
      * Shrinks the paddle by this amount
      */
@@ -589,7 +615,8 @@ public class PongApp extends Application {
         Rectangle ball = new Rectangle(BALL_W, BALL_H);
         ball.setFill(SCORE_INFO_COLOR);
         // random x-coordinate for ball object
-        ball.setTranslateX((Math.random() * (APP_W - ball.getWidth())));
+        ball.setTranslateX((RANDOM.nextDouble()
+                * (APP_W - ball.getWidth())));
         ball.setTranslateY(APP_H_Y_CORD_1_3RD_FROM_TOP);
         root.getChildren().add(ball);
 
@@ -917,7 +944,8 @@ public class PongApp extends Application {
              * @return a random x-coordinate for the ball to respawn
              */
             private double generateRandomBallRespawnXCord() {
-                return (Math.random() * (BALL_X_CORD_MAX_RESPAWN_LIMIT));
+                return (RANDOM.nextDouble()
+                        * (BALL_X_CORD_MAX_RESPAWN_LIMIT));
             }
 
             /**
@@ -1,4 +1,4 @@
-import java.util.Random;
+import java.util.SplittableRandom;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application; // JavaFX application support
 import javafx.event.EventHandler;
@@ -831,6 +831,11 @@ class Pond extends PondsAndClouds {
  * Game
  */
 class Game extends Pane {
+    /**
+     * The state of the helicopter is printed at most twice a second, not
+     * every frame.
+     */
+    private static final long HELICOPTER_PRINT_INTERVAL_NANOS = 500_000_000L;
     /**
      * The initial fuel value is set for playability
      */
@@ -874,11 +879,17 @@ class Game extends Pane {
 
     public void play() {
         AnimationTimer loop = new AnimationTimer() {
+            private long lastHelicopterPrint;
+
             @Override
             public void handle(long now) {
                 update();
-                System.err.println(helicopter.toString());
-                System.err.println(isHelicopterInCloud());
+                if (now - lastHelicopterPrint
+                        >= HELICOPTER_PRINT_INTERVAL_NANOS) {
+                    lastHelicopterPrint = now;
+                    System.err.println(helicopter.toString());
+                    System.err.println(isHelicopterInCloud());
+                }
             }
         };
         loop.start();
@@ -966,7 +977,27 @@ class Globals {
 class Utility {
 
     // random class is static so it is shared by all instances of this class
-    static Random random = new Random();
+    static SplittableRandom random = new SplittableRandom(randomSeed());
+
+    /**
+     * @return the seed given with -Drng.seed, or else a new one; either
+     *         way it is printed, so the game can be played again
+     */
+    private static long randomSeed() {
+        String property = System.getProperty("rng.seed");
+        long seed = System.nanoTime();
+        if (property != null) {
+            try {
+                seed = Long.parseLong(property.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("ignoring -Drng.seed=" + property
+                        + ", it is not a number");
+            }
+        }
+        System.err.println("rng.seed=" + seed
+                + " (repeat with -Drng.seed=" + seed + ")");
+        return seed;
+    }
 
     /**
      * Generate a random number in the inclusive range [min, max].
@@ -0,0 +1,54 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * @brief AllocationCounter reads how many bytes the current thread has
+ *        allocated on the heap, to check that a piece of code does not
+ *        allocate (or how much it does).
+ * @summary It uses the HotSpot extension of ThreadMXBean. On a JVM without
+ *          it, or with allocation counting switched off, every reading is -1
+ *          and the difference of two readings is 0.
+ */
+final class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean THREADS = bean();
+
+    private AllocationCounter() {
+    }
+
+    private static com.sun.management.ThreadMXBean bean() {
+        try {
+            java.lang.management.ThreadMXBean bean =
+                    ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads =
+                        (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // fall through, counting is not available
+        }
+        return null;
+    }
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if
+     *         this is not supported
+     */
+    public static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread since the given
+     *         reading of allocatedBytes()
+     */
+    public static long since(long startBytes) {
+        return THREADS != null ? allocatedBytes() - startBytes : 0;
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * A single boid: position, velocity and the trail of its last positions.
+ *
+ * The state is double buffered: during a frame every boid only reads the
+ * current x, y, dx, dy (of itself and its neighbours) and writes the next*
+ * fields, so the result does not depend on the order in which boids are
+ * updated, or on how many threads update them. swap() then makes the next
+ * state current.
+ */
+class Boid {
+    double x;
+    double y;
+    double dx;
+    double dy;
+    double nextX;
+    double nextY;
+    double nextDx;
+    double nextDy;
+    BoidTrail trail;
+
+    public Boid(double x, double y, double dx, double dy, int trailLength) {
+        this.x = x;
+        this.y = y;
+        this.dx = dx;
+        this.dy = dy;
+        this.trail = new BoidTrail(trailLength);
+    }
+
+    public void swap() {
+        x = nextX;
+        y = nextY;
+        dx = nextDx;
+        dy = nextDy;
+    }
+}
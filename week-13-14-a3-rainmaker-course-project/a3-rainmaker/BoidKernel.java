@@ -0,0 +1,35 @@
+/**
+ * A steering backend working on BoidLanes: for the lanes from ... to - 1 it
+ * applies the three rules, the speed limit and the bounds, and writes
+ * nextDx and nextDy. It only reads the current state, so disjoint ranges can
+ * be steered in parallel.
+ */
+interface BoidKernel {
+    void steer(BoidLanes lanes, BoidRules rules, int from, int to);
+
+    /**
+     * Kernel selected with --kernel=scalar or --kernel=simd. The scalar
+     * kernel is used for an unknown name, or when the SIMD kernel is not
+     * available (see loadSimd()).
+     */
+    static BoidKernel load(String name) {
+        if ("simd".equals(name)) {
+            try {
+                return loadSimd();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall back to the scalar kernel
+            }
+        }
+        return new ScalarBoidKernel();
+    }
+
+    /**
+     * The SIMD kernel. It needs the incubator module (java --add-modules
+     * jdk.incubator.vector), it is loaded by name so this class still works
+     * without it. The exception thrown tells why it is not available.
+     */
+    static BoidKernel loadSimd() throws ReflectiveOperationException {
+        return (BoidKernel) Class.forName("VectorBoidKernel")
+                .getDeclaredConstructor().newInstance();
+    }
+}
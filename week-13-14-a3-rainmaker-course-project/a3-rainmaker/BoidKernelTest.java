@@ -0,0 +1,61 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoidKernelTest {
+    private BoidRules rules;
+    private BoidLanes lanes;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(133);
+        Boid[] boids = new Boid[3000];
+        for (int i = 0; i < boids.length; i++) {
+            boids[i] = new Boid(random.nextDouble() * 1100,
+                    random.nextDouble() * 650,
+                    random.nextDouble() * 30 - 15,
+                    random.nextDouble() * 30 - 15, 0);
+        }
+        this.rules = new BoidRules();
+        BoidNeighborGrid grid = new BoidNeighborGrid(rules.visualRange,
+                rules.width, rules.height);
+        grid.rebuild(boids);
+        this.lanes = new BoidLanes();
+        this.lanes.load(grid, boids.length);
+    }
+
+    /**
+     * @brief Test that an unknown kernel name falls back to the scalar kernel.
+     * @throws Exception
+     */
+    @Test
+    public void load_unknownName_isScalar() throws Exception {
+        assertTrue(BoidKernel.load("gpu") instanceof ScalarBoidKernel);
+    }
+
+    /**
+     * @brief Test that the SIMD kernel (or its fallback) steers like the
+     *        scalar kernel, up to rounding.
+     * @throws Exception
+     */
+    @Test
+    public void simdKernel_matchesScalarKernel() throws Exception {
+        int size = lanes.size();
+        new ScalarBoidKernel().steer(lanes, rules, 0, size);
+        double[] expectedDx = lanes.nextDx.clone();
+        double[] expectedDy = lanes.nextDy.clone();
+
+        // an odd range so the last vector is partly masked off
+        BoidKernel simd = BoidKernel.load("simd");
+        simd.steer(lanes, rules, 0, 1001);
+        simd.steer(lanes, rules, 1001, size);
+        for (int i = 0; i < size; i++) {
+            assertEquals(expectedDx[i], lanes.nextDx[i], 1e-9);
+            assertEquals(expectedDy[i], lanes.nextDy[i], 1e-9);
+        }
+    }
+}
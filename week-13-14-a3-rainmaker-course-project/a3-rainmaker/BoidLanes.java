@@ -0,0 +1,54 @@
+/**
+ * The flock as structure-of-arrays lanes in grid order.
+ *
+ * load() copies x, y, dx, dy of the boids in the order of the neighbour grid,
+ * so the boids of a cell are a contiguous range of each array and a kernel
+ * can sweep a neighbour cell with plain (or vector) array loops. A kernel
+ * writes nextDx and nextDy, store() hands them back to the Boid objects.
+ */
+class BoidLanes {
+    double[] x = new double[0];
+    double[] y = new double[0];
+    double[] dx = new double[0];
+    double[] dy = new double[0];
+    double[] nextDx = new double[0];
+    double[] nextDy = new double[0];
+    BoidNeighborGrid grid;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    // Copy the current state of the flock, the grid must be rebuilt already
+    public void load(BoidNeighborGrid grid, int size) {
+        this.grid = grid;
+        this.size = size;
+        if (x.length != size) {
+            x = new double[size];
+            y = new double[size];
+            dx = new double[size];
+            dy = new double[size];
+            nextDx = new double[size];
+            nextDy = new double[size];
+        }
+        for (int k = 0; k < size; k++) {
+            Boid boid = grid.boidAt(k);
+            x[k] = boid.x;
+            y[k] = boid.y;
+            dx[k] = boid.dx;
+            dy[k] = boid.dy;
+        }
+    }
+
+    // Write the next state of lanes from ... to - 1 back to the boids
+    public void store(int from, int to) {
+        for (int k = from; k < to; k++) {
+            Boid boid = grid.boidAt(k);
+            boid.nextDx = nextDx[k];
+            boid.nextDy = nextDy[k];
+            boid.nextX = x[k] + nextDx[k];
+            boid.nextY = y[k] + nextDy[k];
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the boid area used to find neighbours without comparing
+ * every pair of boids.
+ *
+ * With the cell size equal to the visual range, every boid within range of
+ * a boid is in its own cell or one of the 8 cells around it. The grid is
+ * rebuilt once per frame with a counting sort, so the boids of a cell sit
+ * next to each other in boidAt(cellStart(cell)) ... boidAt(cellEnd(cell) - 1).
+ * Boids outside the area are clamped into the border cells. The neighbours
+ * of a boid are found by walking the rows firstNeighborRow ...
+ * lastNeighborRow around its cell, each one index range.
+ */
+class BoidNeighborGrid {
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private Boid[] sortedBoids = new Boid[0];
+    private int[] boidCell = new int[0];
+
+    public BoidNeighborGrid(double cellSize, double width, double height) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStart = new int[columns * rows + 1];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int column(double x) {
+        return Math.min(columns - 1, Math.max(0, (int) (x / cellSize)));
+    }
+
+    public int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) (y / cellSize)));
+    }
+
+    public int cellStart(int column, int row) {
+        return cellStart[row * columns + column];
+    }
+
+    public int cellEnd(int column, int row) {
+        return cellStart[row * columns + column + 1];
+    }
+
+    public int firstNeighborRow(int row) {
+        return Math.max(0, row - 1);
+    }
+
+    public int lastNeighborRow(int row) {
+        return Math.min(rows - 1, row + 1);
+    }
+
+    // The cells of a row are next to each other in the sorted boids, so the
+    // cell (column, row) and its left and right neighbours are the single
+    // range neighborStart(column, row) ... neighborEnd(column, row) - 1
+    public int neighborStart(int column, int row) {
+        return cellStart(Math.max(0, column - 1), row);
+    }
+
+    public int neighborEnd(int column, int row) {
+        return cellEnd(Math.min(columns - 1, column + 1), row);
+    }
+
+    public Boid boidAt(int index) {
+        return sortedBoids[index];
+    }
+
+    // Sort the boids by cell (counting sort), once per frame
+    public void rebuild(Boid[] boids) {
+        if (sortedBoids.length != boids.length) {
+            sortedBoids = new Boid[boids.length];
+            boidCell = new int[boids.length];
+        }
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < boids.length; i++) {
+            boidCell[i] = row(boids[i].y) * columns + column(boids[i].x);
+            cellStart[boidCell[i] + 1]++;
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        // cellStart[cell] is used as the write cursor of each cell and ends
+        // up at the end of the cell, shift it back to the start afterwards
+        for (int i = 0; i < boids.length; i++) {
+            sortedBoids[cellStart[boidCell[i]]++] = boids[i];
+        }
+        for (int cell = columns * rows; cell > 0; cell--) {
+            cellStart[cell] = cellStart[cell - 1];
+        }
+        cellStart[0] = 0;
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoidNeighborGridTest {
+    private static final int VISUAL_RANGE = 80;
+    private Boid[] boids;
+    private BoidNeighborGrid grid;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(133);
+        this.boids = new Boid[2000];
+        for (int i = 0; i < boids.length; i++) {
+            // some boids are outside of the area and get clamped
+            boids[i] = new Boid(random.nextDouble() * 1300 - 100,
+                    random.nextDouble() * 850 - 100, 0, 0, 0);
+        }
+        this.grid = new BoidNeighborGrid(VISUAL_RANGE, 1100, 650);
+        this.grid.rebuild(boids);
+    }
+
+    /**
+     * @brief Test that every boid is in exactly one cell.
+     * @throws Exception
+     */
+    @Test
+    public void rebuild_placesEveryBoidOnce() throws Exception {
+        Set<Boid> indexed = new HashSet<>();
+        for (int row = 0; row < grid.getRows(); row++) {
+            for (int column = 0; column < grid.getColumns(); column++) {
+                for (int k = grid.cellStart(column, row);
+                        k < grid.cellEnd(column, row); k++) {
+                    indexed.add(grid.boidAt(k));
+                }
+            }
+        }
+        assertEquals(boids.length, indexed.size());
+    }
+
+    /**
+     * @brief Test that the 3x3 cells around a boid contain every boid within
+     *        the visual range.
+     * @throws Exception
+     */
+    @Test
+    public void neighbourCells_containEveryBoidInRange() throws Exception {
+        for (Boid boid : boids) {
+            Set<Boid> candidates = new HashSet<>();
+            int column = grid.column(boid.x);
+            int row = grid.row(boid.y);
+            for (int r = Math.max(0, row - 1);
+                    r <= Math.min(grid.getRows() - 1, row + 1); r++) {
+                for (int c = Math.max(0, column - 1);
+                        c <= Math.min(grid.getColumns() - 1, column + 1); c++) {
+                    for (int k = grid.cellStart(c, r); k < grid.cellEnd(c, r);
+                            k++) {
+                        candidates.add(grid.boidAt(k));
+                    }
+                }
+            }
+            for (Boid other : boids) {
+                double dx = boid.x - other.x;
+                double dy = boid.y - other.y;
+                if (dx * dx + dy * dy < VISUAL_RANGE * VISUAL_RANGE) {
+                    assertTrue(candidates.contains(other));
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Test that the neighbour ranges hold the same boids as the 3x3
+     *        cells around a boid.
+     * @throws Exception
+     */
+    @Test
+    public void neighborRanges_matchNeighbourCells() throws Exception {
+        for (Boid boid : boids) {
+            Set<Boid> cells = new HashSet<>();
+            Set<Boid> ranges = new HashSet<>();
+            int column = grid.column(boid.x);
+            int row = grid.row(boid.y);
+            for (int r = grid.firstNeighborRow(row);
+                    r <= grid.lastNeighborRow(row); r++) {
+                for (int c = Math.max(0, column - 1);
+                        c <= Math.min(grid.getColumns() - 1, column + 1); c++) {
+                    for (int k = grid.cellStart(c, r); k < grid.cellEnd(c, r);
+                            k++) {
+                        cells.add(grid.boidAt(k));
+                    }
+                }
+                for (int k = grid.neighborStart(column, r);
+                        k < grid.neighborEnd(column, r); k++) {
+                    ranges.add(grid.boidAt(k));
+                }
+            }
+            assertEquals(cells, ranges);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Batched renderer for the flock.
+ *
+ * Instead of transforming the context and filling one path per boid, the
+ * rotated triangle of every boid is computed on the CPU and all boids are
+ * filled as one path, and all trails are stroked as one path. The colors
+ * are parsed once. For very large flocks the PIXELS mode writes one pixel
+ * per boid into an int[] and blits it to the canvas in a single drawImage.
+ */
+class BoidRenderer {
+    enum Mode {
+        LEGACY, BATCHED, PIXELS
+    }
+
+    static final Color FILL_COLOR = Color.web("#558cf4");
+    static final Color TRAIL_COLOR = Color.web("#558cf466");
+    private static final int FILL_ARGB = 0xFF558CF4;
+    // Triangle of a boid pointing along +x, tip at the boid position
+    private static final double BOID_LENGTH = 15;
+    private static final double BOID_HALF_WIDTH = 5;
+
+    private final int width;
+    private final int height;
+    private WritableImage image;
+    private int[] pixels;
+
+    public BoidRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // All boids as one filled path, all trails as one stroked path
+    public void drawBatched(GraphicsContext ctx, Boid[] boids, boolean drawTraces) {
+        ctx.setFill(FILL_COLOR);
+        ctx.beginPath();
+        for (Boid boid : boids) {
+            double speed = Math.sqrt(boid.dx * boid.dx + boid.dy * boid.dy);
+            // same heading as atan2(dy, dx), without the trigonometry
+            double cos = (speed > 0) ? boid.dx / speed : 1;
+            double sin = (speed > 0) ? boid.dy / speed : 0;
+            double backX = boid.x - BOID_LENGTH * cos;
+            double backY = boid.y - BOID_LENGTH * sin;
+            ctx.moveTo(boid.x, boid.y);
+            ctx.lineTo(backX - BOID_HALF_WIDTH * sin, backY + BOID_HALF_WIDTH * cos);
+            ctx.lineTo(backX + BOID_HALF_WIDTH * sin, backY - BOID_HALF_WIDTH * cos);
+            ctx.closePath();
+        }
+        ctx.fill();
+
+        if (drawTraces) {
+            ctx.setStroke(TRAIL_COLOR);
+            ctx.beginPath();
+            for (Boid boid : boids) {
+                BoidTrail trail = boid.trail;
+                if (trail.size() == 0) {
+                    continue;
+                }
+                ctx.moveTo(trail.getX(0), trail.getY(0));
+                for (int i = 1; i < trail.size(); i++) {
+                    ctx.lineTo(trail.getX(i), trail.getY(i));
+                }
+            }
+            ctx.stroke();
+        }
+    }
+
+    // One pixel per boid, written to an int[] and blitted in one call
+    public void drawPixels(GraphicsContext ctx, Boid[] boids) {
+        if (image == null) {
+            image = new WritableImage(width, height);
+            pixels = new int[width * height];
+        }
+        Arrays.fill(pixels, 0);
+        for (Boid boid : boids) {
+            int px = (int) boid.x;
+            int py = (int) boid.y;
+            if (px >= 0 && px < width && py >= 0 && py < height) {
+                pixels[py * width + px] = FILL_ARGB;
+            }
+        }
+        image.getPixelWriter().setPixels(0, 0, width, height,
+                PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+        ctx.drawImage(image, 0, 0);
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * The slider driven factors of the boid rules and the area the flock lives
+ * in, copied from Boids before every frame so the steering kernels do not
+ * depend on the JavaFX application.
+ */
+class BoidRules {
+    double visualRange = 80;
+    double minDistance = 15;
+    double centeringFactor = 0.005;
+    double avoidFactor = 0.05;
+    double matchingFactor = 0.05;
+    double speedLimit = 15;
+    double width = 1100;
+    double height = 650;
+    double margin = 100;
+    double turnFactor = 1;
+}
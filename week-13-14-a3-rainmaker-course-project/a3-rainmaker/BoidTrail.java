@@ -0,0 +1,72 @@
+
+/**
+ * Fixed capacity ring buffer of the last positions of a boid.
+ *
+ * The points are kept in two primitive arrays and the oldest point is
+ * overwritten once the trail is full, so adding a point never allocates.
+ * getX(0) / getY(0) is the oldest point, getX(size() - 1) the newest.
+ * A trail of capacity 0 keeps no points, e.g. for boids that are never
+ * drawn with traces.
+ */
+class BoidTrail {
+    private final double[] xs;
+    private final double[] ys;
+    // index of the oldest point
+    private int head;
+    private int size;
+
+    public BoidTrail(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(
+                    "capacity must not be negative: " + capacity);
+        }
+        xs = new double[capacity];
+        ys = new double[capacity];
+        head = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return xs.length;
+    }
+
+    public void add(double x, double y) {
+        if (xs.length == 0) {
+            return;
+        }
+        int tail = head + size;
+        if (tail >= xs.length) {
+            tail -= xs.length;
+        }
+        xs[tail] = x;
+        ys[tail] = y;
+        if (size < xs.length) {
+            size++;
+        } else {
+            // full, the point just written replaced the oldest one
+            head = (head + 1 == xs.length) ? 0 : head + 1;
+        }
+    }
+
+    public double getX(int i) {
+        return xs[index(i)];
+    }
+
+    public double getY(int i) {
+        return ys[index(i)];
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private int index(int i) {
+        int index = head + i;
+        return (index >= xs.length) ? index - xs.length : index;
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoidTrailTest {
+    private BoidTrail trail;
+
+    @Before
+    public void setUp() throws Exception {
+        this.trail = new BoidTrail(50);
+    }
+
+    /**
+     * @brief Test that points are returned oldest first before the trail is
+     *        full.
+     * @throws Exception
+     */
+    @Test
+    public void add_keepsOrderBeforeFull() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            this.trail.add(i, -i);
+        }
+        assertEquals(10, this.trail.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, this.trail.getX(i), 0.0);
+            assertEquals(-i, this.trail.getY(i), 0.0);
+        }
+    }
+
+    /**
+     * @brief Test that a full trail keeps the last 50 points, oldest first.
+     * @throws Exception
+     */
+    @Test
+    public void add_keepsLastPointsWhenFull() throws Exception {
+        for (int i = 0; i < 1234; i++) {
+            this.trail.add(i, -i);
+        }
+        assertEquals(50, this.trail.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(1234 - 50 + i, this.trail.getX(i), 0.0);
+            assertEquals(-(1234 - 50 + i), this.trail.getY(i), 0.0);
+        }
+    }
+
+    /**
+     * @brief Test that a trail of capacity 0 ignores new points.
+     * @throws Exception
+     */
+    @Test
+    public void add_withCapacityZero_keepsNothing() throws Exception {
+        BoidTrail empty = new BoidTrail(0);
+        empty.add(1, 2);
+        empty.add(3, 4);
+        assertEquals(0, empty.size());
+    }
+
+    /**
+     * @brief Test that a negative capacity is rejected.
+     * @throws Exception
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void newTrail_withNegativeCapacity_fails() throws Exception {
+        new BoidTrail(-1);
+    }
+}
@@ -1,14 +1,17 @@
 
 
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.geometry.Insets;
-import javafx.geometry.Point2D;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.layout.*;
@@ -16,17 +19,45 @@ import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
 
-public class Main extends Application {
+public class Boids extends Application {
 
     private int width = 1100;
     private int height = 650;
 
-    private final int numBoids = 100;
+    // Number of boids, can be set at launch with --boids=50000
+    private int numBoids = 100;
     private final int visualRange = 80;
+    // Number of positions kept in the trail of each boid
+    private final int trailLength = 50;
 
-    private Boid[] boids = new Boid[numBoids];
+    private Boid[] boids;
+    // Neighbour index rebuilt once per frame, cell size = visualRange
+    private BoidNeighborGrid grid = new BoidNeighborGrid(visualRange, width, height);
     private GraphicsContext gc;
     private boolean drawTraces = false;
+    // Fused single-pass steering, the checkbox switches back to the three
+    // separate passes to compare them
+    private boolean fusedRules = true;
+    // Steer the boids on all cores, the result is the same as on one core
+    private boolean parallel = true;
+    // Boids per parallel task, small flocks are not worth splitting
+    private static final int PARALLEL_CHUNK_SIZE = 1024;
+    // Steering backend on SoA lanes, chosen at launch with --kernel=scalar
+    // or --kernel=simd, null steers the Boid objects directly
+    private BoidKernel kernel;
+    // Seeded stream of the flock, see RandomStreams
+    private SplittableRandom random = RandomStreams.global().stream("boids");
+    private BoidLanes lanes = new BoidLanes();
+    private BoidRules rules = new BoidRules();
+    // How the flock is drawn, LEGACY is one path per boid
+    private BoidRenderer.Mode renderMode = BoidRenderer.Mode.BATCHED;
+    private BoidRenderer renderer = new BoidRenderer(width, height);
+    // Frame time readout, averaged over FRAME_TIME_SAMPLES frames
+    private static final int FRAME_TIME_SAMPLES = 30;
+    private Label frameTimeLabel;
+    private long stepNanos;
+    private long drawNanos;
+    private int frameTimeCount;
 
     //Controlling factors
     double centeringFactor = 0.005;
@@ -35,8 +66,45 @@ public class Main extends Application {
     double matchingFactor = 0.05;
     int speedLimit = 15;
 
+    // Used to set up a flock without the window, e.g. in the benchmarks
+    void setNumBoids(int numBoids) {
+        this.numBoids = numBoids;
+    }
+
+    void setKernel(BoidKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    void setFusedRules(boolean fusedRules) {
+        this.fusedRules = fusedRules;
+    }
+
+    Boid[] getBoids() {
+        return boids;
+    }
+
     @Override
     public void start(Stage primaryStage) {
+        String boidsParameter = getParameters().getNamed().get("boids");
+        if (boidsParameter != null) {
+            numBoids = Integer.parseInt(boidsParameter);
+        }
+        String kernelParameter = getParameters().getNamed().get("kernel");
+        if ("simd".equals(kernelParameter)) {
+            try {
+                kernel = BoidKernel.loadSimd();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("SIMD kernel not available (" + e
+                        + "), using the scalar kernel");
+                kernel = new ScalarBoidKernel();
+            }
+        } else if (kernelParameter != null) {
+            kernel = BoidKernel.load(kernelParameter);
+        }
         HBox vbox = new HBox();
 
         Canvas canvas = new Canvas(width,height);
@@ -51,6 +119,8 @@ public class Main extends Application {
         };
         timer.start();
 
+        frameTimeLabel = new Label();
+        frameTimeLabel.setTextFill(Color.web("#fff"));
         vbox.getChildren().addAll(canvas, buildSlidersBox());
         vbox.setBackground(new Background(new BackgroundFill(Color.web("#282B34"), CornerRadii.EMPTY, Insets.EMPTY)));
 
@@ -96,6 +166,36 @@ public class Main extends Application {
             drawTraces = !drawTraces;
         });
 
+        //FusedRules Checkbox
+        CheckBox fusedRulesCheckBox = new CheckBox();
+        Label fusedRulesLabel = new Label("Fused Rules");
+        fusedRulesLabel.setTextFill(Color.web("#fff"));
+
+        fusedRulesCheckBox.setSelected(fusedRules);
+        fusedRulesCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+            fusedRules = newValue;
+        });
+
+        //Parallel Checkbox
+        CheckBox parallelCheckBox = new CheckBox();
+        Label parallelLabel = new Label("Parallel");
+        parallelLabel.setTextFill(Color.web("#fff"));
+
+        parallelCheckBox.setSelected(parallel);
+        parallelCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+            parallel = newValue;
+        });
+
+        //Renderer ChoiceBox
+        Label renderModeLabel = new Label("Renderer");
+        renderModeLabel.setTextFill(Color.web("#fff"));
+        ChoiceBox<BoidRenderer.Mode> renderModeChoiceBox = new ChoiceBox<>();
+        renderModeChoiceBox.getItems().addAll(BoidRenderer.Mode.values());
+        renderModeChoiceBox.setValue(renderMode);
+        renderModeChoiceBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+            renderMode = newValue;
+        });
+
         resetButton.setOnAction(e -> {
             centeringFactorSlider.setValue(0.005);
             minDistanceSlider.setValue(15);
@@ -130,24 +230,26 @@ public class Main extends Application {
         });
 
         vBox.getChildren().addAll(centeringFactorLabel, centeringFactorSlider, separationLabel,
-                minDistanceSlider, matchingFactorLabel, matchingFactorSlider,speedLimitLabel, speedLimitSlider, avoidFactorLabel, avoidFactorSlider, resetButton, drawTracesLabel,drawTracesCheckBox);
+                minDistanceSlider, matchingFactorLabel, matchingFactorSlider,speedLimitLabel, speedLimitSlider, avoidFactorLabel, avoidFactorSlider, resetButton, drawTracesLabel,drawTracesCheckBox, fusedRulesLabel, fusedRulesCheckBox, parallelLabel, parallelCheckBox, renderModeLabel, renderModeChoiceBox, frameTimeLabel);
         return vBox;
     }
 
     public void initBoids() {
+        boids = new Boid[numBoids];
         for (int i = 0; i < numBoids; i += 1) {
             boids[i] = new Boid(
-                    Math.random() * width,
-                    Math.random() * height,
-                    Math.random() * 10 - 5,
-                    Math.random() * 10 - 5,
-                    new Point2D[0]
+                    random.nextDouble() * width,
+                    random.nextDouble() * height,
+                    random.nextDouble() * 10 - 5,
+                    random.nextDouble() * 10 - 5,
+                    trailLength
             );
         }
     }
 
-    public double distance(Boid boid1, Boid boid2) {
-        return Math.sqrt((boid1.x - boid2.x) * (boid1.x - boid2.x) + (boid1.y - boid2.y) * (boid1.y - boid2.y));
+    // Compare against the squared range instead of taking a square root
+    public double distanceSquared(Boid boid1, Boid boid2) {
+        return (boid1.x - boid2.x) * (boid1.x - boid2.x) + (boid1.y - boid2.y) * (boid1.y - boid2.y);
     }
 
     //Currently not used so why spent so much time?
@@ -165,16 +267,16 @@ public class Main extends Application {
         int turnFactor = 1;
 
         if (boid.x < margin) {
-            boid.dx += turnFactor;
+            boid.nextDx += turnFactor;
         }
         if (boid.x > width - margin) {
-            boid.dx -= turnFactor;
+            boid.nextDx -= turnFactor;
         }
         if (boid.y < margin) {
-            boid.dy += turnFactor;
+            boid.nextDy += turnFactor;
         }
         if (boid.y > height - margin) {
-            boid.dy -= turnFactor;
+            boid.nextDy -= turnFactor;
         }
     }
 
@@ -182,12 +284,19 @@ public class Main extends Application {
         double centerX = 0;
         double centerY = 0;
         int numNeighbors = 0;
-
-        for (Boid otherBoid : boids) {
-            if (distance(boid, otherBoid) < visualRange) {
-                centerX += otherBoid.x;
-                centerY += otherBoid.y;
-                numNeighbors += 1;
+        double visualRangeSquared = visualRange * visualRange;
+
+        int column = grid.column(boid.x);
+        int row = grid.row(boid.y);
+        for (int r = grid.firstNeighborRow(row); r <= grid.lastNeighborRow(row); r++) {
+            int end = grid.neighborEnd(column, r);
+            for (int k = grid.neighborStart(column, r); k < end; k++) {
+                Boid otherBoid = grid.boidAt(k);
+                if (distanceSquared(boid, otherBoid) < visualRangeSquared) {
+                    centerX += otherBoid.x;
+                    centerY += otherBoid.y;
+                    numNeighbors += 1;
+                }
             }
         }
 
@@ -195,38 +304,52 @@ public class Main extends Application {
             centerX = centerX / numNeighbors;
             centerY = centerY / numNeighbors;
 
-            boid.dx += (centerX - boid.x) * centeringFactor;
-            boid.dy += (centerY - boid.y) * centeringFactor;
+            boid.nextDx += (centerX - boid.x) * centeringFactor;
+            boid.nextDy += (centerY - boid.y) * centeringFactor;
         }
     }
 
     public void avoidOthers(Boid boid) {
         double moveX = 0;
         double moveY = 0;
-
-        for (Boid otherBoid : boids) {
-            if (otherBoid != boid) {
-                if (distance(boid, otherBoid) < minDistance) {
-                    moveX += boid.x - otherBoid.x;
-                    moveY += boid.y - otherBoid.y;
+        double minDistanceSquared = minDistance * minDistance;
+
+        int column = grid.column(boid.x);
+        int row = grid.row(boid.y);
+        for (int r = grid.firstNeighborRow(row); r <= grid.lastNeighborRow(row); r++) {
+            int end = grid.neighborEnd(column, r);
+            for (int k = grid.neighborStart(column, r); k < end; k++) {
+                Boid otherBoid = grid.boidAt(k);
+                if (otherBoid != boid) {
+                    if (distanceSquared(boid, otherBoid) < minDistanceSquared) {
+                        moveX += boid.x - otherBoid.x;
+                        moveY += boid.y - otherBoid.y;
+                    }
                 }
             }
         }
 
-        boid.dx += moveX * avoidFactor;
-        boid.dy += moveY * avoidFactor;
+        boid.nextDx += moveX * avoidFactor;
+        boid.nextDy += moveY * avoidFactor;
     }
 
     public void mathVelocity(Boid boid) {
         double avgDX = 0;
         double avgDY = 0;
         int numNeighbors = 0;
-
-        for (Boid otherBoid : boids) {
-            if (distance(boid, otherBoid) < visualRange) {
-                avgDX += otherBoid.dx;
-                avgDY += otherBoid.dy;
-                numNeighbors += 1;
+        double visualRangeSquared = visualRange * visualRange;
+
+        int column = grid.column(boid.x);
+        int row = grid.row(boid.y);
+        for (int r = grid.firstNeighborRow(row); r <= grid.lastNeighborRow(row); r++) {
+            int end = grid.neighborEnd(column, r);
+            for (int k = grid.neighborStart(column, r); k < end; k++) {
+                Boid otherBoid = grid.boidAt(k);
+                if (distanceSquared(boid, otherBoid) < visualRangeSquared) {
+                    avgDX += otherBoid.dx;
+                    avgDY += otherBoid.dy;
+                    numNeighbors += 1;
+                }
             }
         }
 
@@ -234,28 +357,76 @@ public class Main extends Application {
             avgDX = avgDX / numNeighbors;
             avgDY = avgDY / numNeighbors;
 
-            boid.dx += (avgDX - boid.dx) * matchingFactor;
-            boid.dy += (avgDY - boid.dy) * matchingFactor;
+            // match the current velocity, as steer() and the kernels do
+            boid.nextDx += (avgDX - boid.dx) * matchingFactor;
+            boid.nextDy += (avgDY - boid.dy) * matchingFactor;
         }
     }
 
+    // All three rules in a single sweep over the neighbours: the sums for
+    // cohesion, separation and alignment are gathered together and then
+    // applied together, with the same slider driven factors as the three
+    // separate rules above
+    public void steer(Boid boid) {
+        double centerX = 0;
+        double centerY = 0;
+        double avgDX = 0;
+        double avgDY = 0;
+        int numNeighbors = 0;
+        double moveX = 0;
+        double moveY = 0;
+        double visualRangeSquared = visualRange * visualRange;
+        double minDistanceSquared = minDistance * minDistance;
+
+        int column = grid.column(boid.x);
+        int row = grid.row(boid.y);
+        for (int r = grid.firstNeighborRow(row); r <= grid.lastNeighborRow(row); r++) {
+            int end = grid.neighborEnd(column, r);
+            for (int k = grid.neighborStart(column, r); k < end; k++) {
+                Boid otherBoid = grid.boidAt(k);
+                double distanceSquared = distanceSquared(boid, otherBoid);
+                if (distanceSquared < visualRangeSquared) {
+                    centerX += otherBoid.x;
+                    centerY += otherBoid.y;
+                    avgDX += otherBoid.dx;
+                    avgDY += otherBoid.dy;
+                    numNeighbors += 1;
+                }
+                if (otherBoid != boid && distanceSquared < minDistanceSquared) {
+                    moveX += boid.x - otherBoid.x;
+                    moveY += boid.y - otherBoid.y;
+                }
+            }
+        }
+
+        double steerX = moveX * avoidFactor;
+        double steerY = moveY * avoidFactor;
+        if (numNeighbors != 0) {
+            steerX += (centerX / numNeighbors - boid.x) * centeringFactor;
+            steerY += (centerY / numNeighbors - boid.y) * centeringFactor;
+            steerX += (avgDX / numNeighbors - boid.dx) * matchingFactor;
+            steerY += (avgDY / numNeighbors - boid.dy) * matchingFactor;
+        }
+        boid.nextDx += steerX;
+        boid.nextDy += steerY;
+    }
+
     public void limitSpeed(Boid boid) {
-        double speed = Math.sqrt(boid.dx * boid.dx + boid.dy * boid.dy);
+        double speed = Math.sqrt(boid.nextDx * boid.nextDx + boid.nextDy * boid.nextDy);
         if (speed > speedLimit) {
-            boid.dx = (boid.dx / speed) * speedLimit;
-            boid.dy = (boid.dy / speed) * speedLimit;
+            boid.nextDx = (boid.nextDx / speed) * speedLimit;
+            boid.nextDy = (boid.nextDy / speed) * speedLimit;
         }
     }
 
     public void drawGraphics(GraphicsContext ctx, Boid boid) {
         double angle = Math.atan2(boid.dy, boid.dx);
         ctx.translate(boid.x, boid.y);
-        ctx.rotate(angle);
+        // rotate takes degrees
+        ctx.rotate(Math.toDegrees(angle));
         ctx.translate(-boid.x, -boid.y);
-        Color fillColor = Color.web("#558cf4");
-        Color storkeColor = Color.web("#558cf466");
 
-        ctx.setFill(fillColor);
+        ctx.setFill(BoidRenderer.FILL_COLOR);
 
         ctx.beginPath();
         ctx.moveTo(boid.x, boid.y);
@@ -265,58 +436,123 @@ public class Main extends Application {
         ctx.fill();
         ctx.setTransform(1, 0, 0, 1, 0, 0);
 
-        if (drawTraces) {
-            ctx.setStroke(storkeColor);
+        if (drawTraces && boid.trail.size() > 0) {
+            ctx.setStroke(BoidRenderer.TRAIL_COLOR);
             ctx.beginPath();
-            ctx.moveTo(boid.history[0].getX(), boid.history[0].getY());
-            for (Point2D point : boid.history) {
-                ctx.lineTo(point.getX(), point.getY());
+            // oldest to newest point
+            ctx.moveTo(boid.trail.getX(0), boid.trail.getY(0));
+            for (int i = 1; i < boid.trail.size(); i++) {
+                ctx.lineTo(boid.trail.getX(i), boid.trail.getY(i));
             }
             ctx.stroke();
         }
     }
 
 
-    public void animationLoop() {
-        for (Boid boid : boids) {
-            flyTowardsCenter(boid);
-            avoidOthers(boid);
-            mathVelocity(boid);
+    // Read the current state of the flock, write the next state of
+    // boids[from] ... boids[to - 1]
+    public void updateBoids(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Boid boid = boids[i];
+            boid.nextDx = boid.dx;
+            boid.nextDy = boid.dy;
+            if (fusedRules) {
+                steer(boid);
+            } else {
+                flyTowardsCenter(boid);
+                avoidOthers(boid);
+                mathVelocity(boid);
+            }
             limitSpeed(boid);
             keepWithinBounds(boid);
 
-            boid.x += boid.dx;
-            boid.y += boid.dy;
-
-            boid.history = push(boid.history, boid.x, boid.y);
-            boid.history = slice(boid.history, boid.history.length - 50, 0);
+            boid.nextX = boid.x + boid.nextDx;
+            boid.nextY = boid.y + boid.nextDy;
         }
+    }
+
+    public void animationLoop() {
+        long startTime = System.nanoTime();
+        step();
+        long stepTime = System.nanoTime();
 
         gc.clearRect(0, 0, width, height);
-        for (Boid boid : boids) {
-            drawGraphics(gc, boid);
+        switch (renderMode) {
+            case LEGACY:
+                for (Boid boid : boids) {
+                    drawGraphics(gc, boid);
+                }
+                break;
+            case PIXELS:
+                renderer.drawPixels(gc, boids);
+                break;
+            default:
+                renderer.drawBatched(gc, boids, drawTraces);
+                break;
+        }
+        long drawTime = System.nanoTime();
+        updateFrameTime(stepTime - startTime, drawTime - stepTime);
+    }
+
+    // Show the average step and draw time, updated every few frames so the
+    // label itself does not cost much
+    private void updateFrameTime(long stepTime, long drawTime) {
+        stepNanos += stepTime;
+        drawNanos += drawTime;
+        frameTimeCount++;
+        if (frameTimeCount == FRAME_TIME_SAMPLES) {
+            frameTimeLabel.setText(String.format("Step %.2f ms%nDraw %.2f ms",
+                    stepNanos / 1e6 / frameTimeCount, drawNanos / 1e6 / frameTimeCount));
+            stepNanos = 0;
+            drawNanos = 0;
+            frameTimeCount = 0;
         }
+    }
 
+    // Advance the flock by one frame, without drawing it
+    private void update(int from, int to) {
+        if (kernel != null) {
+            updateLanes(from, to);
+        } else {
+            updateBoids(from, to);
+        }
     }
 
-    public Point2D[] push(Point2D[] arr, double x, double y) {
-        Point2D[] longer = new Point2D[arr.length + 1];
-        System.arraycopy(arr, 0, longer, 0, arr.length);
-        longer[arr.length] = new Point2D(x, y);
-        return longer;
+    // Next state of the lanes from ... to - 1 with the kernel, written back
+    // to their boids
+    public void updateLanes(int from, int to) {
+        kernel.steer(lanes, rules, from, to);
+        lanes.store(from, to);
     }
 
-    public Point2D[] slice(Point2D[] arr, int start, int end) {
-        if (arr.length > 50) {
-            Point2D[] slice = new Point2D[start - end];
+    public void step() {
+        grid.rebuild(boids);
+        if (kernel != null) {
+            rules.visualRange = visualRange;
+            rules.width = width;
+            rules.height = height;
+            rules.minDistance = minDistance;
+            rules.centeringFactor = centeringFactor;
+            rules.avoidFactor = avoidFactor;
+            rules.matchingFactor = matchingFactor;
+            rules.speedLimit = speedLimit;
+            lanes.load(grid, boids.length);
+        }
+        int chunks = (boids.length + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+        if (parallel && chunks > 1) {
+            // Every chunk only writes the next state of its own boids
+            IntStream.range(0, chunks).parallel().forEach(chunk -> update(
+                    chunk * PARALLEL_CHUNK_SIZE,
+                    Math.min(boids.length, (chunk + 1) * PARALLEL_CHUNK_SIZE)));
+        } else {
+            update(0, boids.length);
+        }
 
-            for (int i = 0; i < slice.length; i++) {
-                slice[i] = arr[start + i];
-            }
+        for (Boid boid : boids) {
+            boid.swap();
 
-            return slice;
+            boid.trail.add(boid.x, boid.y);
         }
-        return arr;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,175 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoidsTest {
+    // the defaults of Boids
+    private static final int WIDTH = 1100;
+    private static final int HEIGHT = 650;
+    private static final int VISUAL_RANGE = 80;
+    private static final int MARGIN = 100;
+    private static final int TURN_FACTOR = 1;
+    private Boids boids;
+
+    @Before
+    public void setUp() throws Exception {
+        this.boids = new Boids();
+        this.boids.setNumBoids(200);
+        this.boids.setRandom(new SplittableRandom(133));
+        this.boids.initBoids();
+    }
+
+    /**
+     * @brief Test that the fused steering pass moves every boid like a
+     *        reference that checks every pair of boids, rule by rule.
+     * @throws Exception
+     */
+    @Test
+    public void steer_matchesReference() throws Exception {
+        for (int step = 0; step < 10; step++) {
+            double[][] expected = referenceStep(this.boids.getBoids());
+            this.boids.step();
+            assertState(expected, this.boids.getBoids());
+        }
+    }
+
+    /**
+     * @brief Test that the three separate rules move every boid like the
+     *        fused pass.
+     * @throws Exception
+     */
+    @Test
+    public void separateRules_matchFusedPass() throws Exception {
+        Boids separate = new Boids();
+        separate.setNumBoids(200);
+        separate.setRandom(new SplittableRandom(133));
+        separate.initBoids();
+        separate.setFusedRules(false);
+        for (int step = 0; step < 10; step++) {
+            this.boids.step();
+            separate.step();
+            assertState(state(this.boids.getBoids()), separate.getBoids());
+        }
+    }
+
+    /**
+     * @brief Test that a flock large enough to be split into parallel
+     *        chunks ends in exactly the same state on 1 and on 4 threads,
+     *        with the Boid objects and with the scalar kernel.
+     * @throws Exception
+     */
+    @Test
+    public void step_isTheSameOnOneAndFourThreads() throws Exception {
+        for (String kernel : new String[] { "objects", "scalar" }) {
+            assertArrayEquals(kernel, runSteps(new ForkJoinPool(1), kernel),
+                    runSteps(new ForkJoinPool(4), kernel));
+        }
+    }
+
+    /**
+     * Steps a seeded flock of 3000 boids 20 times in a pool; the parallel
+     * stream of Boids.step() runs in the pool it is called from.
+     *
+     * @return the x, y, dx, dy of every boid after the last step
+     */
+    private static double[][] runSteps(ForkJoinPool pool, String kernel)
+            throws Exception {
+        try {
+            return pool.submit(() -> {
+                Boids flock = new Boids();
+                flock.setNumBoids(3000);
+                if (!kernel.equals("objects")) {
+                    flock.setKernel(BoidKernel.load(kernel));
+                }
+                flock.setRandom(new SplittableRandom(133));
+                flock.initBoids();
+                for (int step = 0; step < 20; step++) {
+                    flock.step();
+                }
+                return state(flock.getBoids());
+            }).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The next x, y, dx, dy of every boid, computed from every pair of
+     * boids with the rules of Boids.
+     */
+    private double[][] referenceStep(Boid[] flock) {
+        double[][] next = new double[flock.length][];
+        for (int i = 0; i < flock.length; i++) {
+            Boid boid = flock[i];
+            double centerX = 0;
+            double centerY = 0;
+            double avgDX = 0;
+            double avgDY = 0;
+            double moveX = 0;
+            double moveY = 0;
+            int numNeighbors = 0;
+            for (Boid other : flock) {
+                double distance = Math.hypot(boid.x - other.x,
+                        boid.y - other.y);
+                if (distance < VISUAL_RANGE) {
+                    centerX += other.x;
+                    centerY += other.y;
+                    avgDX += other.dx;
+                    avgDY += other.dy;
+                    numNeighbors++;
+                }
+                if (other != boid && distance < this.boids.minDistance) {
+                    moveX += boid.x - other.x;
+                    moveY += boid.y - other.y;
+                }
+            }
+            // cohesion, separation and alignment
+            double dx = boid.dx
+                    + (centerX / numNeighbors - boid.x)
+                            * this.boids.centeringFactor
+                    + moveX * this.boids.avoidFactor
+                    + (avgDX / numNeighbors - boid.dx)
+                            * this.boids.matchingFactor;
+            double dy = boid.dy
+                    + (centerY / numNeighbors - boid.y)
+                            * this.boids.centeringFactor
+                    + moveY * this.boids.avoidFactor
+                    + (avgDY / numNeighbors - boid.dy)
+                            * this.boids.matchingFactor;
+            double speed = Math.hypot(dx, dy);
+            if (speed > this.boids.speedLimit) {
+                dx = dx / speed * this.boids.speedLimit;
+                dy = dy / speed * this.boids.speedLimit;
+            }
+            dx += (boid.x < MARGIN ? TURN_FACTOR : 0)
+                    - (boid.x > WIDTH - MARGIN ? TURN_FACTOR : 0);
+            dy += (boid.y < MARGIN ? TURN_FACTOR : 0)
+                    - (boid.y > HEIGHT - MARGIN ? TURN_FACTOR : 0);
+            next[i] = new double[] { boid.x + dx, boid.y + dy, dx, dy };
+        }
+        return next;
+    }
+
+    private static double[][] state(Boid[] flock) {
+        double[][] state = new double[flock.length][];
+        for (int i = 0; i < flock.length; i++) {
+            state[i] = new double[] { flock[i].x, flock[i].y, flock[i].dx,
+                    flock[i].dy };
+        }
+        return state;
+    }
+
+    private static void assertState(double[][] expected, Boid[] flock) {
+        double[][] actual = state(flock);
+        for (int i = 0; i < flock.length; i++) {
+            for (int k = 0; k < 4; k++) {
+                assertEquals("boid " + i, expected[i][k], actual[i][k], 1e-9);
+            }
+        }
+    }
+}
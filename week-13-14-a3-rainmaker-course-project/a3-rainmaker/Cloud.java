@@ -1,35 +1,41 @@
-import javafx.geometry.Point2D;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 
-public class Cloud extends MoveableObject {
+/**
+ * @brief Cloud is the view of a CloudModel.
+ */
+public class Cloud extends MoveableObject
+        implements PooledView<CloudModel> {
     private int rgb_value = 255;
-    private final double CLOUD_SIZE_UPPER_BOUND = 50.0;
-    private final double CLOUD_SIZE_LOWER_BOUND = 30.0;
-    private double saturationPercentage;
     private Color CLOUD_COLOR = Color.rgb(rgb_value, rgb_value, rgb_value);
+    private CloudModel cloudModel;
     private Circle cloud;
 
-    private CloudSaturationPercentageInfoText saturationText;
+    private InfoText saturationText;
 
-    public Cloud(Point2D location) {
-        super(location);
-        this.saturationPercentage = 0.0;
+    public Cloud(CloudModel model) {
+        super(model);
+        this.cloudModel = model;
         this.cloud = new Circle();
         this.cloud.setFill(CLOUD_COLOR);
-        this.cloud.setRadius(Utility.generateRandomNumberInRange(
-                CLOUD_SIZE_LOWER_BOUND, CLOUD_SIZE_UPPER_BOUND));
-        this.saturationPercentage = 0.0;
+        this.cloud.setRadius(model.getRadius());
         this.add(this.cloud);
-        saturationText = new CloudSaturationPercentageInfoText(
-                saturationPercentage);
+        saturationText = InfoText.cloudSaturation(
+                model.getSaturationPercentage());
         this.add(saturationText);
     }
 
     @Override
-    protected void move() {
-        // TODO Auto-generated method stub
-
+    public void bind(CloudModel model) {
+        this.model = model;
+        this.cloudModel = model;
+        this.cloud.setRadius(model.getRadius());
+        this.sync(1);
     }
 
+    @Override
+    public void sync(double alpha) {
+        super.sync(alpha);
+        saturationText.setValue(cloudModel.getSaturationPercentage());
+    }
 }
@@ -0,0 +1,55 @@
+
+/**
+ * @brief CloudModel is the simulation state of a Cloud: its size and how
+ *        saturated it is.
+ */
+class CloudModel extends MoveableObjectModel {
+    private static final double MAX_SATURATION_PERCENTAGE = 100.0;
+    private static final double SEEDING_PERCENTAGE_STEP = 1.0;
+    private double radius;
+    private double saturationPercentage;
+
+    public CloudModel(double positionX, double positionY, double radius) {
+        this(new EntityStore(1), positionX, positionY, radius);
+    }
+
+    public CloudModel(EntityStore store,
+            double positionX, double positionY, double radius) {
+        super(store, positionX, positionY);
+        this.collisionBody = CollisionBody.circle(this, radius);
+        this.reset(positionX, positionY, radius);
+    }
+
+    /**
+     * @brief reset turns this model into a new, dry cloud, so the model can
+     *        be reused when the game is restarted.
+     */
+    public void reset(double positionX, double positionY, double radius) {
+        this.resetEntity(positionX, positionY);
+        this.radius = radius;
+        this.saturationPercentage = 0.0;
+        this.collisionBody.setRadius(radius);
+        this.syncCollisionBody();
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public double getSaturationPercentage() {
+        return saturationPercentage;
+    }
+
+    void setSaturationPercentage(double saturationPercentage) {
+        this.saturationPercentage = saturationPercentage;
+    }
+
+    /**
+     * @brief seed increases the saturation of the cloud by one percent, up
+     *        to fully saturated.
+     */
+    public void seed() {
+        this.saturationPercentage = Math.min(MAX_SATURATION_PERCENTAGE,
+                saturationPercentage + SEEDING_PERCENTAGE_STEP);
+    }
+}
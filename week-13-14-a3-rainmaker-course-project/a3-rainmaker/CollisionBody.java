@@ -0,0 +1,129 @@
+
+/**
+ * @brief CollisionBody is the collision shape of a game object: a circle or
+ *        an axis-aligned rectangle centered on the object.
+ * @summary Bodies are registered into a SpatialHashGrid (broadphase) which
+ *          finds candidate pairs; overlaps() is the exact test (narrowphase).
+ */
+class CollisionBody {
+    enum Shape {
+        CIRCLE, RECTANGLE
+    }
+
+    private final Shape shape;
+    private final Object owner;
+    private double halfWidth;
+    private double halfHeight;
+    private double centerX;
+    private double centerY;
+
+    private CollisionBody(Shape shape, Object owner,
+            double halfWidth, double halfHeight) {
+        this.shape = shape;
+        this.owner = owner;
+        this.halfWidth = halfWidth;
+        this.halfHeight = halfHeight;
+    }
+
+    /**
+     * @param owner  the model this body belongs to
+     * @param radius the radius of the circle
+     */
+    public static CollisionBody circle(Object owner, double radius) {
+        return new CollisionBody(Shape.CIRCLE, owner, radius, radius);
+    }
+
+    /**
+     * @param owner  the model this body belongs to
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    public static CollisionBody rectangle(Object owner,
+            double width, double height) {
+        return new CollisionBody(Shape.RECTANGLE, owner,
+                width / 2, height / 2);
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    public Object getOwner() {
+        return owner;
+    }
+
+    public double getRadius() {
+        return halfWidth;
+    }
+
+    /**
+     * @brief setRadius resizes a circle in place, e.g. when a pond grows or
+     *        a pooled model is reused, instead of allocating a new body.
+     */
+    public void setRadius(double radius) {
+        if (shape != Shape.CIRCLE) {
+            throw new IllegalStateException("only a circle has a radius");
+        }
+        this.halfWidth = radius;
+        this.halfHeight = radius;
+    }
+
+    public double getCenterX() {
+        return centerX;
+    }
+
+    public double getCenterY() {
+        return centerY;
+    }
+
+    public void setCenter(double centerX, double centerY) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+    }
+
+    public double getMinX() {
+        return centerX - halfWidth;
+    }
+
+    public double getMinY() {
+        return centerY - halfHeight;
+    }
+
+    public double getMaxX() {
+        return centerX + halfWidth;
+    }
+
+    public double getMaxY() {
+        return centerY + halfHeight;
+    }
+
+    /**
+     * @brief overlaps is the exact (narrowphase) intersection test.
+     * @return true if the two shapes overlap or touch
+     */
+    public boolean overlaps(CollisionBody other) {
+        if (shape == Shape.CIRCLE && other.shape == Shape.CIRCLE) {
+            double dx = other.centerX - centerX;
+            double dy = other.centerY - centerY;
+            double radii = halfWidth + other.halfWidth;
+            return dx * dx + dy * dy <= radii * radii;
+        }
+        if (shape == Shape.RECTANGLE && other.shape == Shape.RECTANGLE) {
+            return getMinX() <= other.getMaxX()
+                    && other.getMinX() <= getMaxX()
+                    && getMinY() <= other.getMaxY()
+                    && other.getMinY() <= getMaxY();
+        }
+        CollisionBody circle = (shape == Shape.CIRCLE) ? this : other;
+        CollisionBody rectangle = (shape == Shape.CIRCLE) ? other : this;
+        // distance from the circle center to the closest point of the
+        // rectangle
+        double closestX = Math.max(rectangle.getMinX(),
+                Math.min(circle.centerX, rectangle.getMaxX()));
+        double closestY = Math.max(rectangle.getMinY(),
+                Math.min(circle.centerY, rectangle.getMaxY()));
+        double dx = circle.centerX - closestX;
+        double dy = circle.centerY - closestY;
+        return dx * dx + dy * dy <= circle.halfWidth * circle.halfWidth;
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.Arrays;
+
+/**
+ * @brief EntityStore keeps the motion state of every moving entity in
+ *        primitive columns (structure of arrays) indexed by entity id.
+ * @summary Instead of each object owning its own fields, x, y, heading and
+ *          speed of all entities sit next to each other in double[] arrays,
+ *          so integrateAll() can move every entity in one tight loop without
+ *          allocating. The unit direction of each heading is cached when the
+ *          heading changes, so no trigonometry is done per step.
+ */
+class EntityStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private double[] positionX;
+    private double[] positionY;
+    private double[] heading;
+    private double[] speed;
+    private double[] directionX;
+    private double[] directionY;
+    private double[] previousPositionX;
+    private double[] previousPositionY;
+    private double[] previousHeading;
+    private boolean[] isMoving;
+
+    public EntityStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public EntityStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        positionX = new double[capacity];
+        positionY = new double[capacity];
+        heading = new double[capacity];
+        speed = new double[capacity];
+        directionX = new double[capacity];
+        directionY = new double[capacity];
+        previousPositionX = new double[capacity];
+        previousPositionY = new double[capacity];
+        previousHeading = new double[capacity];
+        isMoving = new boolean[capacity];
+        size = 0;
+    }
+
+    /**
+     * @brief create adds a stationary entity facing north (heading 0).
+     * @return the id of the new entity
+     */
+    public int create(double x, double y) {
+        if (size == positionX.length) {
+            grow();
+        }
+        int id = size++;
+        reset(id, x, y);
+        return id;
+    }
+
+    /**
+     * @brief reset makes an existing entity stationary at the given
+     *        position, facing north, as if it was just created.
+     */
+    public void reset(int id, double x, double y) {
+        positionX[id] = x;
+        positionY[id] = y;
+        speed[id] = 0;
+        isMoving[id] = true;
+        setHeading(id, 0);
+        savePreviousState(id);
+    }
+
+    private void grow() {
+        int capacity = positionX.length * 2;
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        heading = Arrays.copyOf(heading, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        directionX = Arrays.copyOf(directionX, capacity);
+        directionY = Arrays.copyOf(directionY, capacity);
+        previousPositionX = Arrays.copyOf(previousPositionX, capacity);
+        previousPositionY = Arrays.copyOf(previousPositionY, capacity);
+        previousHeading = Arrays.copyOf(previousHeading, capacity);
+        isMoving = Arrays.copyOf(isMoving, capacity);
+    }
+
+    /**
+     * @brief clear removes every entity but keeps the allocated columns.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getPositionX(int id) {
+        return positionX[id];
+    }
+
+    public double getPositionY(int id) {
+        return positionY[id];
+    }
+
+    public void setPosition(int id, double x, double y) {
+        positionX[id] = x;
+        positionY[id] = y;
+    }
+
+    public double getHeading(int id) {
+        return heading[id];
+    }
+
+    /**
+     * @brief setHeading sets the compass heading in degrees and caches its
+     *        unit direction (y is negative because the y axis is inverted).
+     */
+    public void setHeading(int id, double compassAngle) {
+        double radians = Math.toRadians(compassAngle);
+        heading[id] = compassAngle;
+        directionX[id] = Math.sin(radians);
+        directionY[id] = -Math.cos(radians);
+    }
+
+    public double getSpeed(int id) {
+        return speed[id];
+    }
+
+    public void setSpeed(int id, double value) {
+        speed[id] = value;
+    }
+
+    public double getVelocityX(int id) {
+        return speed[id] * directionX[id];
+    }
+
+    public double getVelocityY(int id) {
+        return speed[id] * directionY[id];
+    }
+
+    /**
+     * @brief an entity that is not moving keeps its position in
+     *        integrate(), e.g. a helicopter with the ignition off.
+     */
+    public void setMoving(int id, boolean moving) {
+        isMoving[id] = moving;
+    }
+
+    public boolean isMoving(int id) {
+        return isMoving[id];
+    }
+
+    public double getPreviousPositionX(int id) {
+        return previousPositionX[id];
+    }
+
+    public double getPreviousPositionY(int id) {
+        return previousPositionY[id];
+    }
+
+    public double getPreviousHeading(int id) {
+        return previousHeading[id];
+    }
+
+    /**
+     * @brief savePreviousState remembers the state of one entity at the
+     *        start of a simulation step.
+     */
+    public void savePreviousState(int id) {
+        previousPositionX[id] = positionX[id];
+        previousPositionY[id] = positionY[id];
+        previousHeading[id] = heading[id];
+    }
+
+    /**
+     * @brief savePreviousStateAll remembers the state of every entity at the
+     *        start of a simulation step.
+     */
+    public void savePreviousStateAll() {
+        System.arraycopy(positionX, 0, previousPositionX, 0, size);
+        System.arraycopy(positionY, 0, previousPositionY, 0, size);
+        System.arraycopy(heading, 0, previousHeading, 0, size);
+    }
+
+    /**
+     * @brief integrate moves one entity along its heading for one step.
+     * @param deltaTime the length of the step in seconds
+     */
+    public void integrate(int id, double deltaTime) {
+        if (isMoving[id]) {
+            double frames = deltaTime * Globals.REFERENCE_FRAME_RATE;
+            positionX[id] += directionX[id] * speed[id] * frames;
+            positionY[id] += directionY[id] * speed[id] * frames;
+        }
+    }
+
+    /**
+     * @brief integrateAll moves every entity along its heading for one step
+     *        in a single pass over the columns.
+     * @param deltaTime the length of the step in seconds
+     */
+    public void integrateAll(double deltaTime) {
+        // speeds are tuned per frame at the reference frame rate
+        double frames = deltaTime * Globals.REFERENCE_FRAME_RATE;
+        for (int id = 0; id < size; id++) {
+            if (isMoving[id]) {
+                double distance = speed[id] * frames;
+                positionX[id] += directionX[id] * distance;
+                positionY[id] += directionY[id] * distance;
+            }
+        }
+    }
+}
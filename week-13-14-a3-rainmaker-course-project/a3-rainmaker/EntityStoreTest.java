@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EntityStoreTest {
+    private static final double STEP_SECONDS = 1.0 / 120;
+    private EntityStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        this.store = new EntityStore();
+    }
+
+    /**
+     * @brief Test that ids are handed out in order and the columns grow
+     *        past the initial capacity.
+     * @throws Exception
+     */
+    @Test
+    public void create_growsPastInitialCapacity() throws Exception {
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i, this.store.create(i, -i));
+        }
+        assertEquals(50000, this.store.size());
+        assertEquals(49999, this.store.getPositionX(49999), 0.0);
+        assertEquals(-49999, this.store.getPositionY(49999), 0.0);
+    }
+
+    /**
+     * @brief Test that integrateAll moves each entity along its heading and
+     *        matches integrating the entities one by one.
+     * @throws Exception
+     */
+    @Test
+    public void integrateAll_matchesIntegrate() throws Exception {
+        EntityStore single = new EntityStore();
+        for (int i = 0; i < 1000; i++) {
+            for (EntityStore each : new EntityStore[] { this.store, single }) {
+                int id = each.create(0, 0);
+                each.setHeading(id, i % 360);
+                each.setSpeed(id, i % 10);
+            }
+        }
+        this.store.integrateAll(STEP_SECONDS);
+        for (int id = 0; id < single.size(); id++) {
+            single.integrate(id, STEP_SECONDS);
+            assertEquals(single.getPositionX(id),
+                    this.store.getPositionX(id), 1e-12);
+            assertEquals(single.getPositionY(id),
+                    this.store.getPositionY(id), 1e-12);
+        }
+    }
+
+    /**
+     * @brief Test that heading 90 moves east and heading 0 moves north
+     *        (negative y, the y axis is inverted).
+     * @throws Exception
+     */
+    @Test
+    public void integrate_followsCompassHeading() throws Exception {
+        int east = this.store.create(0, 0);
+        int north = this.store.create(0, 0);
+        this.store.setHeading(east, 90);
+        this.store.setSpeed(east, 1);
+        this.store.setSpeed(north, 1);
+        this.store.integrateAll(1.0);
+        assertEquals(60, this.store.getPositionX(east), 1e-9);
+        assertEquals(0, this.store.getPositionY(east), 1e-9);
+        assertEquals(0, this.store.getPositionX(north), 1e-9);
+        assertEquals(-60, this.store.getPositionY(north), 1e-9);
+    }
+
+    /**
+     * @brief Test that an entity that is not moving keeps its position.
+     * @throws Exception
+     */
+    @Test
+    public void notMoving_keepsPosition() throws Exception {
+        int id = this.store.create(5, 5);
+        this.store.setSpeed(id, 10);
+        this.store.setMoving(id, false);
+        this.store.integrateAll(STEP_SECONDS);
+        assertEquals(5, this.store.getPositionX(id), 0.0);
+        assertEquals(5, this.store.getPositionY(id), 0.0);
+    }
+}
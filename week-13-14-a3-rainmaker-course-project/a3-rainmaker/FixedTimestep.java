@@ -0,0 +1,99 @@
+
+/**
+ * @brief FixedTimestep turns the variable frame times reported by the
+ *        AnimationTimer into a whole number of fixed-length simulation steps.
+ * @summary Elapsed frame time is added to an accumulator which is drained
+ *          one step at a time. Whatever is left over (less than one step) is
+ *          exposed as an interpolation factor so the renderer can blend
+ *          between the previous and the current simulation state.
+ *          Catch-up is capped so that one slow frame cannot cause a
+ *          "spiral of death" where each frame has more steps to simulate
+ *          than the one before.
+ */
+class FixedTimestep {
+    private static final double NANOSECONDS_PER_SECOND = 1_000_000_000.0;
+    /**
+     * Largest frame time we are willing to simulate (e.g. after the window
+     * was dragged or the process was suspended). Anything longer is dropped.
+     */
+    private static final double MAX_FRAME_TIME_SECONDS = 0.25;
+
+    private final double stepSeconds;
+    private final int maxStepsPerFrame;
+    private double accumulator;
+    private long previousTimeNanos;
+    private boolean isStarted;
+
+    /**
+     * @param stepsPerSecond   the simulation rate in Hz (e.g. 120)
+     * @param maxStepsPerFrame the most steps simulated for a single frame
+     */
+    public FixedTimestep(double stepsPerSecond, int maxStepsPerFrame) {
+        if (stepsPerSecond <= 0 || maxStepsPerFrame <= 0) {
+            throw new IllegalArgumentException(
+                    "stepsPerSecond and maxStepsPerFrame must be positive");
+        }
+        this.stepSeconds = 1.0 / stepsPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        this.reset();
+    }
+
+    /**
+     * @brief advance accumulates the time since the previous frame.
+     * @param nowNanos the timestamp passed to AnimationTimer.handle(long)
+     * @return the number of fixed steps the caller must simulate this frame
+     */
+    public int advance(long nowNanos) {
+        if (!isStarted) {
+            // the first frame only establishes the time base
+            isStarted = true;
+            previousTimeNanos = nowNanos;
+            return 0;
+        }
+        double frameSeconds = (nowNanos - previousTimeNanos)
+                / NANOSECONDS_PER_SECOND;
+        previousTimeNanos = nowNanos;
+        return advanceSeconds(frameSeconds);
+    }
+
+    /**
+     * @brief advanceSeconds accumulates an explicit frame time in seconds.
+     * @return the number of fixed steps the caller must simulate this frame
+     */
+    public int advanceSeconds(double frameSeconds) {
+        accumulator += Math.min(Math.max(0, frameSeconds),
+                MAX_FRAME_TIME_SECONDS);
+        int steps = (int) (accumulator / stepSeconds);
+        if (steps > maxStepsPerFrame) {
+            // we are too far behind to catch up, drop the backlog but keep
+            // the sub-step remainder so the interpolation stays smooth
+            steps = maxStepsPerFrame;
+            accumulator = accumulator % stepSeconds;
+        } else {
+            accumulator -= steps * stepSeconds;
+        }
+        return steps;
+    }
+
+    /**
+     * @return how far (0...1) the current frame is between the previous and
+     *         the current simulation step
+     */
+    public double getAlpha() {
+        return Math.min(1.0, accumulator / stepSeconds);
+    }
+
+    public double getStepSeconds() {
+        return stepSeconds;
+    }
+
+    /**
+     * @brief reset forgets the time base and any accumulated time, so that
+     *        the next call to advance does not simulate the pause.
+     */
+    public void reset() {
+        this.accumulator = 0;
+        this.previousTimeNanos = 0;
+        this.isStarted = false;
+    }
+}
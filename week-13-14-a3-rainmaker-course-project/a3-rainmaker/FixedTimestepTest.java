@@ -0,0 +1,70 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FixedTimestepTest {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private FixedTimestep timestep;
+
+    @Before
+    public void setUp() throws Exception {
+        this.timestep = new FixedTimestep(120, 8);
+    }
+
+    /**
+     * @brief Test that the first frame only sets the time base.
+     * @throws Exception
+     */
+    @Test
+    public void firstFrame_simulatesNoSteps() throws Exception {
+        assertEquals(0, this.timestep.advance(123_456_789L));
+    }
+
+    /**
+     * @brief Test that one second of frames simulates the same number of
+     *        steps at 60 Hz and at 144 Hz.
+     * @throws Exception
+     */
+    @Test
+    public void stepCount_isIndependentOfRefreshRate() throws Exception {
+        assertEquals(120, simulateOneSecondAt(60));
+        assertEquals(120, simulateOneSecondAt(144));
+    }
+
+    /**
+     * @brief Test that a very slow frame is capped instead of simulating
+     *        the whole backlog.
+     * @throws Exception
+     */
+    @Test
+    public void slowFrame_isCapped() throws Exception {
+        this.timestep.advance(0);
+        assertEquals(8, this.timestep.advance(NANOS_PER_SECOND));
+        // the backlog was dropped, so a normal frame is back to normal
+        assertEquals(2, this.timestep.advanceSeconds(1.0 / 60));
+    }
+
+    /**
+     * @brief Test that the interpolation factor is the leftover fraction of
+     *        a step.
+     * @throws Exception
+     */
+    @Test
+    public void alpha_isLeftoverFractionOfAStep() throws Exception {
+        assertEquals(0, this.timestep.advanceSeconds(0.5 / 120));
+        assertEquals(0.5, this.timestep.getAlpha(), 1e-9);
+        assertEquals(1, this.timestep.advanceSeconds(0.75 / 120));
+        assertEquals(0.25, this.timestep.getAlpha(), 1e-9);
+    }
+
+    private int simulateOneSecondAt(int framesPerSecond) {
+        FixedTimestep loop = new FixedTimestep(120, 8);
+        int steps = loop.advance(0);
+        for (int frame = 1; frame <= framesPerSecond; frame++) {
+            steps += loop.advance(frame * NANOS_PER_SECOND / framesPerSecond);
+        }
+        // allow for rounding of the last partial step
+        return steps + (int) Math.round(loop.getAlpha());
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * FrameHandler interface for objects that are animated once per frame by
+ * the FrameScheduler.
+ */
+interface FrameHandler {
+    /**
+     * @param alpha how far the frame is between the last two simulation
+     *              steps (0...1)
+     */
+    public void sync(double alpha);
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * @brief FrameProfiler shows where the frame budget goes: it times each
+ *        phase of a frame with System.nanoTime() and keeps one
+ *        FrameTimeHistogram per phase.
+ * @summary The game loop calls beginFrame(), wraps each phase in
+ *          start()/record() and calls endFrame(). A phase may be recorded
+ *          several times in one frame (e.g. one update per simulation step);
+ *          the times are added up and the per-frame total goes into the
+ *          histogram, so every histogram counts frames. Key presses arrive
+ *          between frames and are added to the next frame. Recording does not
+ *          allocate, so the profiler can stay on all the time; the summary
+ *          strings, CSV and JSON are only built when asked for. The bytes
+ *          the game thread allocates per frame (see AllocationCounter) are
+ *          kept in one more histogram, so allocation spikes (e.g. on a
+ *          restart) show up next to the frame times.
+ */
+class FrameProfiler {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * @brief The phases of a frame, in the order they are reported.
+     */
+    enum Phase {
+        /** key handlers, between frames */
+        INPUT("input"),
+        /** stepping every model and integrating their motion */
+        UPDATE("update"),
+        /** rebuilding the collision broadphase */
+        COLLISION("collision"),
+        /** syncing the views and HUD text with the models */
+        SYNC("sync+hud"),
+        /** the whole AnimationTimer handler */
+        FRAME("frame"),
+        /** time between two pulses, including the JavaFX render */
+        PULSE("pulse");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final FrameTimeHistogram[] histograms =
+            new FrameTimeHistogram[PHASES.length];
+    private final long[] frameNanos = new long[PHASES.length];
+    private final FrameTimeHistogram allocatedBytes = new FrameTimeHistogram();
+    private long frameStartNanos;
+    private long frameStartBytes;
+    private long previousPulseNanos;
+    private boolean hasPulse;
+    private long frameCount;
+
+    public FrameProfiler() {
+        for (int i = 0; i < PHASES.length; i++) {
+            histograms[i] = new FrameTimeHistogram();
+        }
+    }
+
+    /**
+     * @brief beginFrame starts timing a frame.
+     * @param pulseNanos the timestamp passed to AnimationTimer.handle(long)
+     */
+    public void beginFrame(long pulseNanos) {
+        if (hasPulse) {
+            histograms[Phase.PULSE.ordinal()]
+                    .record(pulseNanos - previousPulseNanos);
+        }
+        previousPulseNanos = pulseNanos;
+        hasPulse = true;
+        frameStartBytes = AllocationCounter.allocatedBytes();
+        frameStartNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the start time to pass to record()
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @brief record adds the time since startNanos to a phase of the current
+     *        frame.
+     */
+    public void record(Phase phase, long startNanos) {
+        frameNanos[phase.ordinal()] += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @brief endFrame moves the phase totals of this frame into the
+     *        histograms.
+     */
+    public void endFrame() {
+        frameNanos[Phase.FRAME.ordinal()] = System.nanoTime() - frameStartNanos;
+        for (Phase phase : PHASES) {
+            int i = phase.ordinal();
+            if (phase != Phase.PULSE) {
+                histograms[i].record(frameNanos[i]);
+            }
+            frameNanos[i] = 0;
+        }
+        allocatedBytes.record(AllocationCounter.since(frameStartBytes));
+        frameCount++;
+    }
+
+    public FrameTimeHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * @return the bytes allocated by the game thread per frame, all zero if
+     *         the JVM cannot count them
+     */
+    public FrameTimeHistogram getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @brief reset forgets every recorded frame.
+     */
+    public void reset() {
+        for (FrameTimeHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        allocatedBytes.reset();
+        Arrays.fill(frameNanos, 0);
+        hasPulse = false;
+        frameCount = 0;
+    }
+
+    /**
+     * @return one line per phase with p50, p99 and max in milliseconds, and
+     *         one with the kilobytes allocated per frame
+     */
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "%-10s %7s %7s %7s",
+                "ms", "p50", "p99", "max"));
+        for (Phase phase : PHASES) {
+            FrameTimeHistogram histogram = getHistogram(phase);
+            text.append(String.format(Locale.ROOT,
+                    "%n%-10s %7.3f %7.3f %7.3f",
+                    phase.getLabel(),
+                    histogram.percentile(0.50) / NANOS_PER_MILLI,
+                    histogram.percentile(0.99) / NANOS_PER_MILLI,
+                    histogram.getMax() / NANOS_PER_MILLI));
+        }
+        text.append(String.format(Locale.ROOT, "%n%-10s %7.1f %7.1f %7.1f",
+                "alloc KB",
+                allocatedBytes.percentile(0.50) / 1024.0,
+                allocatedBytes.percentile(0.99) / 1024.0,
+                allocatedBytes.getMax() / 1024.0));
+        return text.toString();
+    }
+
+    /**
+     * @return every non-empty bucket of every phase, one CSV row each; the
+     *         allocated bytes per frame are the phase "alloc" in bytes
+     */
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder(
+                "phase,bucket_low_ns,bucket_high_ns,count\n");
+        for (Phase phase : PHASES) {
+            appendCsv(csv, phase.getLabel(), getHistogram(phase));
+        }
+        appendCsv(csv, "alloc", allocatedBytes);
+        return csv.toString();
+    }
+
+    private static void appendCsv(StringBuilder csv, String label,
+            FrameTimeHistogram histogram) {
+        for (int b = 0; b < histogram.getBucketCount(); b++) {
+            long count = histogram.getCountOfBucket(b);
+            if (count > 0) {
+                csv.append(label).append(',')
+                        .append(FrameTimeHistogram.lowestValueOf(b))
+                        .append(',')
+                        .append(FrameTimeHistogram.highestValueOf(b))
+                        .append(',')
+                        .append(count).append('\n');
+            }
+        }
+    }
+
+    /**
+     * @return count, mean, p50, p90, p99 and max of every phase and of the
+     *         allocated bytes per frame as JSON
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"frames\": ")
+                .append(frameCount).append(",\n  \"phases\": {");
+        for (Phase phase : PHASES) {
+            FrameTimeHistogram histogram = getHistogram(phase);
+            json.append(phase.ordinal() == 0 ? "\n" : ",\n")
+                    .append(String.format(Locale.ROOT,
+                            "    \"%s\": {\"count\": %d, \"mean_ns\": %.1f,"
+                                    + " \"p50_ns\": %d, \"p90_ns\": %d,"
+                                    + " \"p99_ns\": %d, \"max_ns\": %d}",
+                            phase.getLabel(),
+                            histogram.getCount(),
+                            histogram.getMean(),
+                            histogram.percentile(0.50),
+                            histogram.percentile(0.90),
+                            histogram.percentile(0.99),
+                            histogram.getMax()));
+        }
+        json.append(String.format(Locale.ROOT,
+                "\n  },\n  \"alloc_bytes\": {\"mean\": %.1f, \"p50\": %d,"
+                        + " \"p99\": %d, \"max\": %d}\n}\n",
+                allocatedBytes.getMean(),
+                allocatedBytes.percentile(0.50),
+                allocatedBytes.percentile(0.99),
+                allocatedBytes.getMax()));
+        return json.toString();
+    }
+
+    /**
+     * @brief dump writes the histograms as CSV and the summary as JSON.
+     */
+    public void dump(Path csvFile, Path jsonFile) throws IOException {
+        Files.write(csvFile, toCsv().getBytes(StandardCharsets.UTF_8));
+        Files.write(jsonFile, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return "FrameProfiler{frames=" + frameCount + "}";
+    }
+}
@@ -0,0 +1,44 @@
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * @brief FrameProfilerOverlay is the on-screen table of frame times
+ *        (p50/p99/max per phase) shown on top of the game, like the FPS label
+ *        of Pong.
+ * @summary It is a FrameHandler, so it is refreshed by the FrameScheduler of
+ *          the game and costs nothing while hidden. While shown, the text is
+ *          only rebuilt every REFRESH_FRAMES frames so that the overlay does
+ *          not dominate the numbers it shows.
+ */
+class FrameProfilerOverlay extends Text implements FrameHandler {
+    private static final int FONT_SIZE = 12;
+    private static final int REFRESH_FRAMES = 30;
+
+    private final FrameProfiler profiler;
+    private int framesUntilRefresh;
+
+    public FrameProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        this.setFont(Font.font("Monospaced", FONT_SIZE));
+        this.setFill(Color.BLACK);
+        this.setVisible(false);
+    }
+
+    /**
+     * @brief toggle shows or hides the overlay.
+     */
+    public void toggle() {
+        this.setVisible(!this.isVisible());
+        framesUntilRefresh = 0;
+    }
+
+    @Override
+    public void sync(double alpha) {
+        if (!this.isVisible() || framesUntilRefresh-- > 0) {
+            return;
+        }
+        framesUntilRefresh = REFRESH_FRAMES;
+        this.setText(profiler.summary());
+    }
+}
@@ -0,0 +1,79 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FrameProfilerTest {
+    private FrameProfiler profiler;
+
+    @Before
+    public void setUp() throws Exception {
+        this.profiler = new FrameProfiler();
+    }
+
+    /**
+     * @brief Test that every value falls into a bucket that contains it and
+     *        that a bucket is at most 1/32 of its values wide.
+     * @throws Exception
+     */
+    @Test
+    public void histogramBuckets_containTheirValues() throws Exception {
+        long[] values = { 0, 1, 63, 64, 65, 127, 128, 1_000, 16_666_667L,
+                1L << 40, Long.MAX_VALUE };
+        for (long value : values) {
+            int bucket = FrameTimeHistogram.bucketOf(value);
+            long low = FrameTimeHistogram.lowestValueOf(bucket);
+            long high = FrameTimeHistogram.highestValueOf(bucket);
+            assertTrue(value + " in bucket", low <= value && value <= high);
+            assertTrue(value + " precision", high - low <= low / 32);
+        }
+    }
+
+    /**
+     * @brief Test that p50, p99 and max are read back within the precision
+     *        of the buckets.
+     * @throws Exception
+     */
+    @Test
+    public void histogramPercentiles_matchRecordedValues() throws Exception {
+        FrameTimeHistogram histogram = new FrameTimeHistogram();
+        for (long micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(500_000, histogram.percentile(0.50), 500_000 / 32.0);
+        assertEquals(990_000, histogram.percentile(0.99), 990_000 / 32.0);
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(1_000_000, histogram.percentile(1.0));
+    }
+
+    /**
+     * @brief Test that a phase recorded several times in one frame counts
+     *        as one sample holding the total, and the pulse is the time
+     *        between two frames.
+     * @throws Exception
+     */
+    @Test
+    public void phasesOfAFrame_areAddedUp() throws Exception {
+        for (long frame = 0; frame < 3; frame++) {
+            this.profiler.beginFrame(frame * 16_000_000L);
+            for (int step = 0; step < 2; step++) {
+                long start = this.profiler.start();
+                this.profiler.record(FrameProfiler.Phase.UPDATE, start - 1_000);
+            }
+            this.profiler.endFrame();
+        }
+        FrameTimeHistogram update =
+                this.profiler.getHistogram(FrameProfiler.Phase.UPDATE);
+        FrameTimeHistogram pulse =
+                this.profiler.getHistogram(FrameProfiler.Phase.PULSE);
+        assertEquals(3, this.profiler.getFrameCount());
+        assertEquals(3, update.getCount());
+        assertTrue(update.percentile(0.50) >= 2_000);
+        assertEquals(2, pulse.getCount());
+        assertEquals(16_000_000L, pulse.getMax());
+        assertTrue(this.profiler.toCsv().contains("\nupdate,"));
+        assertTrue(this.profiler.toJson().contains("\"frames\": 3"));
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @brief FrameScheduler is the single animation clock of the game.
+ * @summary Game owns the only AnimationTimer and runs the scheduler once per
+ *          frame. Everything that is animated per frame (views, blades, text
+ *          effects) registers a FrameHandler here instead of starting a timer
+ *          of its own. Game.init() clears the handlers of the previous game,
+ *          so a restart cannot leave handlers animating views that are no
+ *          longer shown, and the number of active handlers stays the same
+ *          over any number of restarts.
+ */
+class FrameScheduler {
+    private final List<FrameHandler> handlers = new ArrayList<>();
+    // handlers as of the start of a frame, rebuilt only when they change
+    private FrameHandler[] activeHandlers = new FrameHandler[0];
+    private boolean isChanged;
+    private int peakHandlerCount;
+    private long frameCount;
+
+    public void register(FrameHandler handler) {
+        handlers.add(handler);
+        isChanged = true;
+        peakHandlerCount = Math.max(peakHandlerCount, handlers.size());
+    }
+
+    public void unregister(FrameHandler handler) {
+        isChanged |= handlers.remove(handler);
+    }
+
+    /**
+     * @brief clear unregisters every handler, e.g. before the game is
+     *        initialized again.
+     */
+    public void clear() {
+        handlers.clear();
+        isChanged = true;
+    }
+
+    /**
+     * @brief runFrame calls every registered handler once. Handlers that are
+     *        (un)registered during a frame take part from the next frame.
+     */
+    public void runFrame(double alpha) {
+        if (isChanged) {
+            activeHandlers = handlers.toArray(new FrameHandler[0]);
+            isChanged = false;
+        }
+        for (FrameHandler handler : activeHandlers) {
+            handler.sync(alpha);
+        }
+        frameCount++;
+    }
+
+    public int getActiveHandlerCount() {
+        return handlers.size();
+    }
+
+    /**
+     * @return the most handlers that were registered at the same time
+     */
+    public int getPeakHandlerCount() {
+        return peakHandlerCount;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameScheduler{activeHandlers=" + handlers.size()
+                + ", peakHandlers=" + peakHandlerCount
+                + ", frames=" + frameCount + '}';
+    }
+}
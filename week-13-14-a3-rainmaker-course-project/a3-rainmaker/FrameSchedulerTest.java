@@ -0,0 +1,67 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FrameSchedulerTest {
+    private FrameScheduler scheduler;
+    private int calls;
+
+    @Before
+    public void setUp() throws Exception {
+        this.scheduler = new FrameScheduler();
+        this.calls = 0;
+    }
+
+    /**
+     * @brief Test that every registered handler is called once per frame.
+     * @throws Exception
+     */
+    @Test
+    public void runFrame_callsEveryHandlerOnce() throws Exception {
+        scheduler.register(alpha -> calls++);
+        scheduler.register(alpha -> calls++);
+        scheduler.runFrame(0.5);
+        assertEquals(2, calls);
+        assertEquals(1, scheduler.getFrameCount());
+    }
+
+    /**
+     * @brief Test that reinitializing many times does not pile up handlers.
+     * @throws Exception
+     */
+    @Test
+    public void clear_keepsHandlerCountConstantOverRestarts() throws Exception {
+        for (int restart = 0; restart < 100; restart++) {
+            scheduler.clear();
+            for (int view = 0; view < 8; view++) {
+                scheduler.register(alpha -> calls++);
+            }
+            scheduler.runFrame(0);
+        }
+        assertEquals(8, scheduler.getActiveHandlerCount());
+        assertEquals(8, scheduler.getPeakHandlerCount());
+        assertEquals(800, calls);
+    }
+
+    /**
+     * @brief Test that a handler unregistered during a frame still finishes
+     *        that frame and is not called afterwards.
+     * @throws Exception
+     */
+    @Test
+    public void unregister_duringFrame_takesEffectNextFrame() throws Exception {
+        FrameHandler once = new FrameHandler() {
+            @Override
+            public void sync(double alpha) {
+                calls++;
+                scheduler.unregister(this);
+            }
+        };
+        scheduler.register(once);
+        scheduler.runFrame(0);
+        scheduler.runFrame(0);
+        assertEquals(1, calls);
+        assertEquals(0, scheduler.getActiveHandlerCount());
+    }
+}
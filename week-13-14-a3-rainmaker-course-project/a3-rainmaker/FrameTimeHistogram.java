@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * @brief FrameTimeHistogram counts durations in nanoseconds so that
+ *        percentiles (p50, p99) can be read back without keeping every
+ *        sample.
+ * @summary Buckets are log-linear: below 64 ns every nanosecond has its own
+ *          bucket, above that every power of two is split into 32 buckets,
+ *          so a percentile is off by at most 1/32 (about 3%) of its value.
+ *          The bucket array is allocated once; record() only increments a
+ *          counter and never allocates. The largest value is kept exactly.
+ */
+class FrameTimeHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * @brief record adds one duration; negative durations count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS
+                + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return the smallest value counted in the given bucket
+     */
+    static long lowestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * @return the largest value counted in the given bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket + 1 == BUCKET_COUNT) {
+            return Long.MAX_VALUE;
+        }
+        return lowestValueOf(bucket + 1) - 1;
+    }
+
+    /**
+     * @brief percentile is the value that the given fraction of the recorded
+     *        durations do not exceed, e.g. 0.99 for p99.
+     * @return the upper end of the bucket holding that value (never more
+     *         than the largest recorded value), or 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    public int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    public long getCountOfBucket(int bucket) {
+        return counts[bucket];
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+}
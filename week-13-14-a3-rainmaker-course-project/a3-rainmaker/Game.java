@@ -1,6 +1,10 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
 import javafx.animation.AnimationTimer;
-import javafx.geometry.Dimension2D;
-import javafx.geometry.Point2D;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundImage;
@@ -14,17 +18,42 @@ import javafx.scene.transform.Scale;
  * Game
  */
 class Game extends Pane {
-    /**
-     * The initial fuel value is set for playability
-     */
-    private static final int HELICOPTER_INITIAL_FUEL_CAPACITY = 25000;
+    private static final GameLog LOG = GameLog.global();
+    // the state of the helicopter is logged at most twice a second
+    private static final GameLog.Key HELICOPTER_STATE = LOG.key(
+            "helicopter", GameLog.Level.INFO, 2, 1);
+    private static final GameLog.Key INIT = LOG.key(
+            "init", GameLog.Level.INFO);
+    private final FixedTimestep timestep = new FixedTimestep(
+            Globals.SIMULATION_STEPS_PER_SECOND,
+            Globals.MAX_SIMULATION_STEPS_PER_FRAME);
+    private GameWorld world;
+    private Helipad helipad;
     private Helicopter helicopter;
-    private Pond pond01;
-    private Pond pond02;
-    private Pond pond03;
-    private Cloud cloud01;
-    private Cloud cloud02;
-    private Cloud cloud03;
+    private final List<Pond> ponds = new ArrayList<>();
+    private final List<Cloud> clouds = new ArrayList<>();
+    private final List<GameObject> views = new ArrayList<>();
+    // views of objects that left the game, reused on restart and respawn
+    private final ViewPool<PondModel, Pond> pondPool =
+            new ViewPool<>("pond", Pond::new);
+    private final ViewPool<CloudModel, Cloud> cloudPool =
+            new ViewPool<>("cloud", Cloud::new);
+    private final ViewPool<HelicopterModel, Helicopter> helicopterPool =
+            new ViewPool<>("helicopter", Helicopter::new);
+    private final FrameScheduler scheduler = new FrameScheduler();
+    private final FrameProfiler profiler = new FrameProfiler();
+    private FrameProfilerOverlay profilerOverlay;
+    // commands of the player, applied at the start of the next step
+    private final ArrayDeque<GameCommand> pendingCommands = new ArrayDeque<>();
+    // null after a game was loaded, its start is not in a journal
+    private InputJournal journal;
+    private final RewindBuffer rewindBuffer = new RewindBuffer(
+            (int) (Globals.SIMULATION_STEPS_PER_SECOND
+                    / Globals.REWIND_SNAPSHOTS_PER_SECOND),
+            (int) (Globals.REWIND_BUFFER_SECONDS
+                    * Globals.REWIND_SNAPSHOTS_PER_SECOND),
+            Globals.REWIND_KEYFRAME_INTERVAL);
+    private AnimationTimer loop;
 
     public Game() {
         /*
@@ -35,75 +64,225 @@ class Game extends Pane {
     }
 
     /**
-     * update is called by the game loop, so it may "render" the game
-     * with updated object states (e.g. position, velocity, etc.)
+     * update is called by the game loop once per fixed simulation step to
+     * advance the object states (e.g. position, velocity, etc.)
+     *
+     * @param deltaTime the length of a simulation step in seconds
      */
-    public void update() {
-        helicopter.update();
-        pond01.update();
-        pond02.update();
-        pond03.update();
-        cloud01.update();
-        cloud02.update();
-        cloud03.update();
+    public void update(double deltaTime) {
+        applyCommands();
+        long start = profiler.start();
+        world.step(deltaTime);
+        rewindBuffer.record(world);
+        profiler.record(FrameProfiler.Phase.UPDATE, start);
+        start = profiler.start();
+        world.updateCollisionGrid();
+        profiler.record(FrameProfiler.Phase.COLLISION, start);
     }
 
-    public void play() {
-        double previousTime = 0;
+    /**
+     * applyCommands applies the commands submitted since the last step and
+     * records them in the journal with the number of the step they precede.
+     */
+    private void applyCommands() {
+        GameCommand command;
+        while ((command = pendingCommands.poll()) != null) {
+            command.apply(world);
+            if (journal != null) {
+                journal.record(world.getTick(), command);
+            }
+        }
+    }
 
-        AnimationTimer loop = new AnimationTimer() {
+    /**
+     * render is called by the game loop once per frame, after the simulation
+     * steps. Every registered view is synced with its model once, and the
+     * moving objects are drawn in between the last two steps.
+     *
+     * @param alpha how far the frame is between the last two steps (0...1)
+     */
+    public void render(double alpha) {
+        long start = profiler.start();
+        scheduler.runFrame(alpha);
+        profiler.record(FrameProfiler.Phase.SYNC, start);
+    }
+
+    /**
+     * play starts the one AnimationTimer of the game. Calling it again does
+     * not start another one.
+     */
+    public void play() {
+        if (loop != null) {
+            return;
+        }
+        loop = new AnimationTimer() {
             @Override
             public void handle(long now) {
-
-                update();
-                System.err.println(helicopter.toString());
+                profiler.beginFrame(now);
+                int steps = timestep.advance(now);
+                for (int step = 0; step < steps; step++) {
+                    update(timestep.getStepSeconds());
+                }
+                render(timestep.getAlpha());
+                LOG.log(HELICOPTER_STATE, helicopter::toString);
+                profiler.endFrame();
             }
         };
         loop.start();
     }
 
     /**
-     * Initialize the game. This method is called when the game is started.
-     * It will clear all nodes from the game world and add the game objects
+     * Initialize the game. This method is called when the game is started
+     * and when it is restarted. The game world is reset from a new seed and
+     * every object gets a view from the view pools, so a restart reuses the
+     * models and node subtrees of the previous game instead of allocating
+     * them again. The views of the previous game are unregistered from the
+     * frame scheduler, and the input journal and rewind buffer start over.
      */
     public void init() {
-        super.getChildren().clear();
-        super.getChildren().addAll(
-                new Helipad(
-                        Globals.HELIPAD_COORDINATES,
-                        new Dimension2D(100, 100)),
-                pond01 = new Pond(new Point2D(
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.POND_COORDINATES.getX()),
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.POND_COORDINATES.getY()))),
-                pond02 = new Pond(new Point2D(
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.POND_COORDINATES.getX()),
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.POND_COORDINATES.getY()))),
-                pond03 = new Pond(new Point2D(
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.POND_COORDINATES.getX()),
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.POND_COORDINATES.getY()))),
-                cloud01 = new Cloud(new Point2D(
-                        Globals.CLOUD_COORDINATES.getX(),
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.CLOUD_COORDINATES.getY()))),
-                cloud02 = new Cloud(new Point2D(
-                        Globals.CLOUD_COORDINATES.getX(),
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.CLOUD_COORDINATES.getY()))),
-                cloud03 = new Cloud(new Point2D(
-                        Globals.CLOUD_COORDINATES.getX(),
-                        Utility.generateRandomNumberInRange(
-                                0, Globals.CLOUD_COORDINATES.getY()))),
-                helicopter = new Helicopter(
-                        Globals.HELIPAD_COORDINATES,
-                        HELICOPTER_INITIAL_FUEL_CAPACITY)); // end addAll
-        // print out each object in the game world
-        super.getChildren().forEach(System.out::println);
+        init(RandomStreams.global().stream("world").nextLong());
+    }
+
+    private void init(long worldSeed) {
+        long startBytes = AllocationCounter.allocatedBytes();
+        if (world == null) {
+            world = new GameWorld(worldSeed);
+        } else {
+            world.reset(worldSeed);
+        }
+        if (journal == null) {
+            journal = new InputJournal(worldSeed, timestep.getStepSeconds());
+        } else {
+            journal.reset(worldSeed);
+        }
+        rewindBuffer.clear();
+        pendingCommands.clear();
+        releaseViews();
+        scheduler.clear();
+        if (helipad == null) {
+            // the helipad never changes, it is built once
+            helipad = new Helipad(
+                    Globals.HELIPAD_COORDINATES,
+                    Globals.HELIPAD_DIMENSIONS);
+        }
+        views.add(helipad);
+        for (PondModel pond : world.getPonds()) {
+            Pond view = pondPool.acquire(pond);
+            ponds.add(view);
+            views.add(view);
+        }
+        for (CloudModel cloud : world.getClouds()) {
+            Cloud view = cloudPool.acquire(cloud);
+            clouds.add(view);
+            views.add(view);
+        }
+        views.add(helicopter = helicopterPool.acquire(world.getHelicopter()));
+        for (GameObject view : views) {
+            scheduler.register(view);
+        }
+        if (profilerOverlay != null) {
+            scheduler.register(profilerOverlay);
+        }
+        super.getChildren().setAll(views);
+        long initBytes = AllocationCounter.since(startBytes);
+        // log each object in the game world
+        super.getChildren().forEach(child -> LOG.log(INIT, child.toString()));
+        // the number of active frame handlers must not grow over restarts
+        LOG.log(INIT, scheduler.toString());
+        LOG.log(INIT, "allocated " + initBytes + " bytes, " + pondPool + ", "
+                + cloudPool + ", " + helicopterPool);
+    }
+
+    /**
+     * @brief releaseViews hands the views of the current game back to their
+     *        pools.
+     */
+    private void releaseViews() {
+        for (Pond pond : ponds) {
+            pondPool.release(pond);
+        }
+        for (Cloud cloud : clouds) {
+            cloudPool.release(cloud);
+        }
+        if (helicopter != null) {
+            helicopterPool.release(helicopter);
+        }
+        ponds.clear();
+        clouds.clear();
+        views.clear();
+    }
+
+    /**
+     * @brief submit queues a command of the player. It is applied (and
+     *        recorded in the journal) at the start of the next simulation
+     *        step, so a replay can apply it at the same step.
+     */
+    public void submit(GameCommand command) {
+        pendingCommands.add(command);
+    }
+
+    /**
+     * @brief hasJournal tells if the current game is being recorded. A game
+     *        continued from a snapshot is not: a replay starts from the
+     *        seed alone, without the state of the snapshot.
+     */
+    public boolean hasJournal() {
+        return journal != null;
+    }
+
+    /**
+     * @brief saveJournal writes the commands of the current game, up to the
+     *        current step, for ReplayRunner.
+     */
+    public void saveJournal(Path file) throws IOException {
+        if (journal == null) {
+            throw new IOException("a loaded game has no input journal");
+        }
+        journal.setEndTick(world.getTick());
+        journal.write(file);
+    }
+
+    /**
+     * @brief rewind puts the game back by up to the given number of
+     *        seconds, as far as the rewind buffer reaches. The commands
+     *        after that point are removed from the journal.
+     * @return the number of seconds rewound
+     */
+    public double rewind(double seconds) {
+        long tick = world.getTick();
+        WorldSnapshot snapshot = rewindBuffer.rewindTo(tick - Math.round(
+                seconds * Globals.SIMULATION_STEPS_PER_SECOND));
+        if (snapshot == null) {
+            return 0;
+        }
+        snapshot.restore(world);
+        pendingCommands.clear();
+        if (journal != null) {
+            journal.truncate(snapshot.getTick());
+        }
+        return (tick - snapshot.getTick()) * timestep.getStepSeconds();
+    }
+
+    /**
+     * @brief saveSnapshot writes the state of the game, see WorldSnapshot.
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        WorldSnapshot.capture(world).write(file);
+    }
+
+    /**
+     * @brief loadSnapshot continues a saved game. The views are only rebuilt
+     *        if the snapshot is of another world than the current one.
+     */
+    public void loadSnapshot(Path file) throws IOException {
+        WorldSnapshot snapshot = WorldSnapshot.read(file);
+        if (snapshot.getWorldSeed() != world.getSeed()) {
+            init(snapshot.getWorldSeed());
+        }
+        snapshot.restore(world);
+        rewindBuffer.clear();
+        pendingCommands.clear();
+        journal = null;
     }
 
     /**
@@ -133,6 +312,39 @@ class Game extends Pane {
         return helicopter;
     }
 
+    /**
+     * @brief The frame scheduler, e.g. for the number of active handlers.
+     */
+    public FrameScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @brief The frame profiler timing each phase of the game loop.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @brief setProfilerOverlay registers the on-screen frame time table,
+     *        which stays registered when the game is initialized again.
+     */
+    public void setProfilerOverlay(FrameProfilerOverlay overlay) {
+        if (profilerOverlay != null) {
+            scheduler.unregister(profilerOverlay);
+        }
+        profilerOverlay = overlay;
+        scheduler.register(overlay);
+    }
+
+    /**
+     * @brief The headless simulation behind the views.
+     */
+    public GameWorld getWorld() {
+        return world;
+    }
+
     @Override
     public String toString() {
         return "Game{" + "helicopter=" + this.helicopter + '}';
@@ -1,7 +1,14 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import javafx.application.Application;
 import javafx.event.EventHandler;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.StackPane;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
@@ -14,13 +21,40 @@ import javafx.stage.Stage;
  *          methods in Game.
  */
 public class GameApp extends Application {
+    /**
+     * The position of the frame profiler overlay in the scene.
+     * This value is used for both the x and y coordinates.
+     */
+    private static final int PROFILER_OVERLAY_X_Y_POSITION = 10;
+    private static final String PROFILE_CSV_FILE = "frame-profile.csv";
+    private static final String PROFILE_JSON_FILE = "frame-profile.json";
+    private static final String JOURNAL_FILE = "session.rmj";
+    private static final String SNAPSHOT_FILE = "quicksave.rms";
+    private static final GameLog LOG = GameLog.global();
+    private static final GameLog.Key KEYS = LOG.key(
+            "key", GameLog.Level.INFO);
+    private static final GameLog.Key KEY_ERROR = LOG.key(
+            "key", GameLog.Level.WARN);
+    private static final GameLog.Key PROFILE = LOG.key(
+            "profile", GameLog.Level.INFO);
+    private static final GameLog.Key PROFILE_ERROR = LOG.key(
+            "profile", GameLog.Level.WARN);
+
     Game game = new Game();
 
     @Override
     public void start(Stage primaryStage) throws Exception {
-        game.setMapBackground(Globals.GAME_MAP_IMAGE);
+        game.setMapBackground(new Image(Globals.GAME_MAP_IMAGE_PATH));
+        // the overlay is not a child of the game, so it is not flipped
+        FrameProfilerOverlay profilerOverlay =
+                new FrameProfilerOverlay(game.getProfiler());
+        game.setProfilerOverlay(profilerOverlay);
+        StackPane root = new StackPane(game, profilerOverlay);
+        StackPane.setAlignment(profilerOverlay, Pos.TOP_LEFT);
+        StackPane.setMargin(profilerOverlay,
+                new Insets(PROFILER_OVERLAY_X_Y_POSITION));
         primaryStage.setScene(new Scene(
-                game,
+                root,
                 Globals.GAME_APP_DIMENSIONS.getWidth(),
                 Globals.GAME_APP_DIMENSIONS.getHeight()));
         primaryStage.setTitle(Globals.GAME_TITLE);
@@ -32,53 +66,121 @@ public class GameApp extends Application {
         primaryStage.getScene().setOnKeyPressed(new EventHandler<KeyEvent>() {
             @Override
             public void handle(KeyEvent event) {
+                long start = game.getProfiler().start();
+                handleKey(event);
+                game.getProfiler().record(FrameProfiler.Phase.INPUT, start);
+            }
+
+            private void handleKey(KeyEvent event) {
                 // Left Arrow Changes heading of the helicopter to the left.
                 if (event.getCode() == KeyCode.LEFT) {
-                    game.getHelicopter().steerLeft();
+                    game.submit(GameCommand.STEER_LEFT);
                 }
 
                 // Right Arrow Changes heading of the helicopter to the right.
                 if (event.getCode() == KeyCode.RIGHT) {
-                    game.getHelicopter().steerRight();
+                    game.submit(GameCommand.STEER_RIGHT);
                 }
 
                 // Up Arrow Increases the speed of the helicopter by 0.1.
                 if (event.getCode() == KeyCode.UP) {
-                    game.getHelicopter().increaseSpeed();
+                    game.submit(GameCommand.INCREASE_SPEED);
                 }
 
                 // Down Arrow Decreases the speed of the helicopter by 0.1.
                 if (event.getCode() == KeyCode.DOWN) {
-                    game.getHelicopter().decreaseSpeed();
+                    game.submit(GameCommand.DECREASE_SPEED);
                 }
 
                 // 'i' Turns on the helicopter ignition.
                 if (event.getCode() == KeyCode.I) {
-                    game.getHelicopter().toggleIgnition();
+                    game.submit(GameCommand.TOGGLE_IGNITION);
                 }
 
                 // 'b' [optional] shows bounding boxes around objects.
                 if (event.getCode() == KeyCode.B) {
-                    System.err.println(
-                            "B - shows bounding boxes around objects");
+                    LOG.log(KEYS, "B - shows bounding boxes around objects");
                 }
 
                 // 'r' Reinitialize the game
                 if (event.getCode() == KeyCode.R) {
-                    System.err.println();
-                    System.err.println("R - Reinitialize the game");
+                    LOG.log(KEYS, "R - Reinitialize the game");
                     game.init();
                 }
 
                 // 'space' Seeding the cloud
                 if (event.getCode() == KeyCode.SPACE) {
-                    System.err.println();
-                    System.err.println("SPACE - Seeding the cloud");
+                    LOG.log(KEYS, "SPACE - Seeding the cloud");
+                    game.submit(GameCommand.SEED_CLOUDS);
+                }
+
+                // Backspace rewinds the game by a few seconds.
+                if (event.getCode() == KeyCode.BACK_SPACE) {
+                    double seconds = game.rewind(Globals.REWIND_SECONDS);
+                    LOG.log(KEYS, String.format(
+                            "BACK_SPACE - Rewound %.1f s", seconds));
+                }
+
+                // F5 saves the game, F9 loads it again.
+                if (event.getCode() == KeyCode.F5) {
+                    try {
+                        game.saveSnapshot(Paths.get(SNAPSHOT_FILE));
+                        LOG.log(KEYS, "F5 - Saved to " + SNAPSHOT_FILE);
+                    } catch (IOException e) {
+                        LOG.log(KEY_ERROR, "F5 - Could not save: " + e);
+                    }
+                }
+                if (event.getCode() == KeyCode.F9) {
+                    try {
+                        game.loadSnapshot(Paths.get(SNAPSHOT_FILE));
+                        LOG.log(KEYS, "F9 - Loaded " + SNAPSHOT_FILE);
+                    } catch (IOException | IllegalArgumentException e) {
+                        LOG.log(KEY_ERROR, "F9 - Could not load: " + e);
+                    }
+                }
+
+                // 'f' shows or hides the frame times of each phase.
+                if (event.getCode() == KeyCode.F) {
+                    profilerOverlay.toggle();
                 }
             }
         });
     }
 
+    /**
+     * @brief stop writes the frame times of the session to
+     *        frame-profile.csv (histogram buckets) and frame-profile.json
+     *        (p50/p90/p99/max per phase) for offline analysis and the
+     *        input journal of the current game (unless it was continued
+     *        from a snapshot) to session.rmj for ReplayRunner, then writes
+     *        out the messages still in the log.
+     */
+    @Override
+    public void stop() {
+        try {
+            game.getProfiler().dump(Paths.get(PROFILE_CSV_FILE),
+                    Paths.get(PROFILE_JSON_FILE));
+            LOG.log(PROFILE, "Frame times written to " + PROFILE_CSV_FILE
+                    + " and " + PROFILE_JSON_FILE);
+        } catch (IOException e) {
+            LOG.log(PROFILE_ERROR, "Could not write frame times: " + e);
+        }
+        if (!game.hasJournal()) {
+            LOG.log(PROFILE, "No input journal written, a game continued"
+                    + " from " + SNAPSHOT_FILE + " cannot be replayed");
+        } else {
+            try {
+                game.saveJournal(Paths.get(JOURNAL_FILE));
+                LOG.log(PROFILE, "Input journal written to " + JOURNAL_FILE
+                        + ", replay it with: java ReplayRunner "
+                        + JOURNAL_FILE);
+            } catch (IOException e) {
+                LOG.log(PROFILE_ERROR, "Could not write input journal: " + e);
+            }
+        }
+        LOG.close();
+    }
+
     public static void main(String[] args) {
         Application.launch(args);
     }
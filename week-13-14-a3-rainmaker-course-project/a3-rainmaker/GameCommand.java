@@ -0,0 +1,56 @@
+/**
+ * @brief GameCommand is a player input that changes the simulation, e.g. a
+ *        key press of the arrow keys, 'i' or space.
+ * @summary Commands are not applied when the key is pressed but at the start
+ *          of the next simulation step, where they are also recorded in the
+ *          InputJournal with the number of that step. Replaying the journal
+ *          applies every command at the same step, so the replayed session
+ *          is the same as the recorded one. The ordinal is the id of the
+ *          command in a journal file, so new commands go at the end.
+ */
+enum GameCommand {
+    STEER_LEFT,
+    STEER_RIGHT,
+    INCREASE_SPEED,
+    DECREASE_SPEED,
+    TOGGLE_IGNITION,
+    SEED_CLOUDS;
+
+    private static final GameCommand[] VALUES = values();
+
+    /**
+     * @brief apply performs the command on the world.
+     */
+    public void apply(GameWorld world) {
+        switch (this) {
+            case STEER_LEFT:
+                world.getHelicopter().steerLeft();
+                break;
+            case STEER_RIGHT:
+                world.getHelicopter().steerRight();
+                break;
+            case INCREASE_SPEED:
+                world.getHelicopter().increaseSpeed();
+                break;
+            case DECREASE_SPEED:
+                world.getHelicopter().decreaseSpeed();
+                break;
+            case TOGGLE_IGNITION:
+                world.getHelicopter().toggleIgnition();
+                break;
+            case SEED_CLOUDS:
+                world.seedClouds();
+                break;
+        }
+    }
+
+    /**
+     * @return the command with the given id (ordinal)
+     */
+    public static GameCommand of(int id) {
+        if (id < 0 || id >= VALUES.length) {
+            throw new IllegalArgumentException("unknown command id " + id);
+        }
+        return VALUES[id];
+    }
+}
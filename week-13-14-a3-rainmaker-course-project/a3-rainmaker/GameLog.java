@@ -0,0 +1,358 @@
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * @brief GameLog moves console output off the JavaFX thread: messages are
+ *        put into a lock-free ring buffer and written by a background drain
+ *        thread.
+ * @summary Every message belongs to a Key, which has a Level and optional
+ *          limits (at most n messages per second, only every n-th message).
+ *          Filtered and limited messages are rejected before the message
+ *          string is built; the next message of the key reports how many
+ *          were suppressed. The ring buffer is a bounded multi-producer queue
+ *          (each slot has a sequence number, producers claim a slot with one
+ *          compare-and-set), so logging never blocks the game loop: when the
+ *          buffer is full the message is dropped and counted instead.
+ *          The minimum level of global() is read from the system property
+ *          "log.level" (DEBUG, INFO, WARN, ERROR or OFF, in any case), INFO
+ *          by default or when the value is not a level. close() waits a
+ *          moment for messages whose slot was claimed but not yet filled,
+ *          so a message logged while closing is not lost.
+ */
+class GameLog implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long DRAIN_INTERVAL_NANOS = 10_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // how long close() waits for claimed slots to be published
+    private static final long CLOSE_TIMEOUT_NANOS = NANOS_PER_SECOND;
+    private static final long CLOSE_WAIT_NANOS = 100_000L;
+
+    enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    /**
+     * @brief Key is a kind of message, e.g. "helicopter", with its level and
+     *        limits. Create keys once (e.g. in a static field) and reuse them.
+     *        The limit counters are not synchronized: a key logged from
+     *        several threads at once may let a message more through.
+     */
+    static class Key {
+        private final String name;
+        private final Level level;
+        private final int maxPerSecond;
+        private final int sampleEvery;
+        private long windowStartNanos;
+        private int windowCount;
+        private long seenCount;
+        private long suppressedCount;
+
+        private Key(String name, Level level, int maxPerSecond,
+                int sampleEvery) {
+            this.name = name;
+            this.level = level;
+            this.maxPerSecond = maxPerSecond;
+            this.sampleEvery = Math.max(1, sampleEvery);
+        }
+
+        /**
+         * @return true if a message logged at the given time is within the
+         *         limits of this key
+         */
+        boolean accept(long nowNanos) {
+            if (seenCount++ % sampleEvery != 0) {
+                suppressedCount++;
+                return false;
+            }
+            if (maxPerSecond > 0) {
+                if (nowNanos - windowStartNanos >= NANOS_PER_SECOND
+                        || windowCount == 0) {
+                    windowStartNanos = nowNanos;
+                    windowCount = 0;
+                }
+                if (windowCount == maxPerSecond) {
+                    suppressedCount++;
+                    return false;
+                }
+                windowCount++;
+            }
+            return true;
+        }
+
+        /**
+         * @return the messages suppressed since the last call
+         */
+        long takeSuppressedCount() {
+            long count = suppressedCount;
+            suppressedCount = 0;
+            return count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+    }
+
+    private static GameLog global;
+
+    private final PrintStream out;
+    private final Level minLevel;
+    private final int mask;
+    private final Key[] slotKeys;
+    private final String[] slotMessages;
+    private final long[] slotSuppressed;
+    // slot i is free for producer position p when sequence[i] == p, and
+    // holds the message of position p when sequence[i] == p + 1
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private long head;
+    private long writtenCount;
+    private long reportedDroppedCount;
+    private final Thread drainThread;
+    private volatile boolean isRunning = true;
+
+    /**
+     * @param out      where the drain thread writes the messages
+     * @param minLevel messages of keys below this level are ignored
+     * @param capacity the size of the ring buffer, rounded up to a power of 2
+     */
+    public GameLog(PrintStream out, Level minLevel, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.out = out;
+        this.minLevel = minLevel;
+        this.mask = size - 1;
+        this.slotKeys = new Key[size];
+        this.slotMessages = new String[size];
+        this.slotSuppressed = new long[size];
+        this.sequence = new AtomicLongArray(size);
+        for (int slot = 0; slot < size; slot++) {
+            sequence.set(slot, slot);
+        }
+        this.drainThread = new Thread(this::drainLoop, "GameLog-drain");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * @brief global is the log shared by the game, writing to System.err.
+     *        It is flushed when the JVM exits.
+     */
+    public static synchronized GameLog global() {
+        if (global == null) {
+            String property = System.getProperty("log.level");
+            Level level = parseLevel(property);
+            global = new GameLog(System.err,
+                    level != null ? level : Level.INFO, DEFAULT_CAPACITY);
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(global::close, "GameLog-shutdown"));
+            if (property != null && level == null) {
+                global.log(global.key("log", Level.WARN),
+                        "ignoring -Dlog.level=" + property
+                                + ", expected DEBUG, INFO, WARN, ERROR or"
+                                + " OFF");
+            }
+        }
+        return global;
+    }
+
+    /**
+     * @return the level named by the property value in any case, or null if
+     *         there is none or it is not a level
+     */
+    static Level parseLevel(String property) {
+        if (property == null) {
+            return null;
+        }
+        try {
+            return Level.valueOf(property.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @brief key creates a key without limits.
+     */
+    public Key key(String name, Level level) {
+        return key(name, level, 0, 1);
+    }
+
+    /**
+     * @brief key creates a key with limits.
+     * @param maxPerSecond at most this many messages per second, 0 for no
+     *                     limit
+     * @param sampleEvery  only every n-th message is logged, 1 for all
+     */
+    public Key key(String name, Level level, int maxPerSecond,
+            int sampleEvery) {
+        return new Key(name, level, maxPerSecond, sampleEvery);
+    }
+
+    /**
+     * @return true if messages of the key pass the level filter
+     */
+    public boolean isEnabled(Key key) {
+        return minLevel != Level.OFF
+                && key.level.compareTo(minLevel) >= 0;
+    }
+
+    public void log(Key key, String message) {
+        if (isEnabled(key) && key.accept(System.nanoTime())) {
+            offer(key, message);
+        }
+    }
+
+    /**
+     * @brief log builds the message only if it will be logged, so a
+     *        filtered or rate limited message costs no string building.
+     */
+    public void log(Key key, Supplier<String> message) {
+        if (isEnabled(key) && key.accept(System.nanoTime())) {
+            offer(key, message.get());
+        }
+    }
+
+    private void offer(Key key, String message) {
+        long position = claim();
+        if (position >= 0) {
+            publish(position, key, message);
+        }
+    }
+
+    /**
+     * @brief claim reserves the next slot of the ring buffer for a producer.
+     * @return the producer position of the slot, or -1 if the buffer is
+     *         full or closed (the message is counted as dropped)
+     */
+    long claim() {
+        if (!isRunning) {
+            droppedCount.incrementAndGet();
+            return -1;
+        }
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long difference = sequence.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                // the drain thread has not freed this slot yet: full
+                droppedCount.incrementAndGet();
+                return -1;
+            }
+            // else another producer took this position, try the next one
+        }
+    }
+
+    /**
+     * @brief publish fills a claimed slot and hands it to the drain thread.
+     */
+    void publish(long position, Key key, String message) {
+        int slot = (int) (position & mask);
+        slotKeys[slot] = key;
+        slotMessages[slot] = message;
+        slotSuppressed[slot] = key.takeSuppressedCount();
+        sequence.set(slot, position + 1);
+    }
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder();
+        while (isRunning) {
+            if (drainTo(batch) == 0) {
+                LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+            }
+        }
+        // a producer may have claimed a slot without publishing it yet:
+        // wait for it a moment instead of losing its message
+        long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+        drainTo(batch);
+        while (head != tail.get() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(CLOSE_WAIT_NANOS);
+            drainTo(batch);
+        }
+        long lost = tail.get() - head;
+        if (lost > 0) {
+            out.println("WARN log: " + lost
+                    + " messages lost, not published before close");
+            out.flush();
+        }
+    }
+
+    /**
+     * @brief drainTo writes every message in the buffer as one batch.
+     * @return the number of messages written
+     */
+    private int drainTo(StringBuilder batch) {
+        int count = 0;
+        batch.setLength(0);
+        while (true) {
+            int slot = (int) (head & mask);
+            if (sequence.get(slot) != head + 1) {
+                break;
+            }
+            Key key = slotKeys[slot];
+            batch.append(key.level).append(' ').append(key.name).append(": ")
+                    .append(slotMessages[slot]);
+            if (slotSuppressed[slot] > 0) {
+                batch.append(" (+").append(slotSuppressed[slot])
+                        .append(" suppressed)");
+            }
+            batch.append(System.lineSeparator());
+            slotKeys[slot] = null;
+            slotMessages[slot] = null;
+            sequence.set(slot, head + mask + 1);
+            head++;
+            count++;
+        }
+        long dropped = droppedCount.get();
+        if (dropped != reportedDroppedCount) {
+            batch.append("WARN log: ").append(dropped - reportedDroppedCount)
+                    .append(" messages dropped, buffer full")
+                    .append(System.lineSeparator());
+            reportedDroppedCount = dropped;
+        }
+        if (batch.length() > 0) {
+            out.print(batch);
+            out.flush();
+        }
+        writtenCount += count;
+        return count;
+    }
+
+    /**
+     * @brief close writes the messages still in the buffer and stops the
+     *        drain thread.
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the messages written so far; only exact after close()
+     */
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+}
@@ -0,0 +1,115 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GameLogTest {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private ByteArrayOutputStream output;
+    private GameLog log;
+
+    @Before
+    public void setUp() throws Exception {
+        this.output = new ByteArrayOutputStream();
+        this.log = new GameLog(new PrintStream(this.output, true),
+                GameLog.Level.INFO, 64);
+    }
+
+    /**
+     * @brief Test that a key lets through at most its limit per second and
+     *        starts again in the next second.
+     * @throws Exception
+     */
+    @Test
+    public void key_isLimitedPerSecond() throws Exception {
+        GameLog.Key key = this.log.key("limited", GameLog.Level.INFO, 2, 1);
+        assertTrue(key.accept(0));
+        assertTrue(key.accept(1));
+        assertFalse(key.accept(2));
+        assertFalse(key.accept(3));
+        assertEquals(2, key.takeSuppressedCount());
+        assertTrue(key.accept(NANOS_PER_SECOND));
+    }
+
+    /**
+     * @brief Test that a sampled key lets through every n-th message.
+     * @throws Exception
+     */
+    @Test
+    public void key_isSampled() throws Exception {
+        GameLog.Key key = this.log.key("sampled", GameLog.Level.INFO, 0, 3);
+        int accepted = 0;
+        for (int i = 0; i < 9; i++) {
+            accepted += key.accept(i) ? 1 : 0;
+        }
+        assertEquals(3, accepted);
+    }
+
+    /**
+     * @brief Test that messages from several threads are all written once
+     *        the log is closed, and messages below the level are not.
+     * @throws Exception
+     */
+    @Test
+    public void messages_areWrittenByTheDrainThread() throws Exception {
+        GameLog.Key info = this.log.key("info", GameLog.Level.INFO);
+        GameLog.Key debug = this.log.key("debug", GameLog.Level.DEBUG);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    this.log.log(info, "message " + i);
+                    this.log.log(debug, () -> "never built");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        this.log.close();
+        String text = this.output.toString();
+        assertEquals(40, this.log.getWrittenCount());
+        assertTrue(text.contains("INFO info: message 9"));
+        assertFalse(text.contains("never built"));
+    }
+
+    /**
+     * @brief Test that close() waits for a message whose slot was claimed
+     *        before the close but filled after it.
+     * @throws Exception
+     */
+    @Test
+    public void close_waitsForClaimedMessages() throws Exception {
+        GameLog.Key key = this.log.key("late", GameLog.Level.INFO);
+        long position = this.log.claim();
+        Thread closer = new Thread(this.log::close);
+        closer.start();
+        Thread.sleep(50);
+        this.log.publish(position, key, "published while closing");
+        closer.join();
+        assertTrue(this.output.toString()
+                .contains("INFO late: published while closing"));
+        assertEquals(1, this.log.getWrittenCount());
+        assertEquals(-1, this.log.claim());
+    }
+
+    /**
+     * @brief Test that a log level property is read in any case and a
+     *        misspelled one is rejected instead of failing.
+     * @throws Exception
+     */
+    @Test
+    public void parseLevel_isLenient() throws Exception {
+        assertEquals(GameLog.Level.DEBUG, GameLog.parseLevel("debug"));
+        assertEquals(GameLog.Level.WARN, GameLog.parseLevel(" Warn "));
+        assertNull(GameLog.parseLevel("verbose"));
+        assertNull(GameLog.parseLevel(null));
+    }
+}
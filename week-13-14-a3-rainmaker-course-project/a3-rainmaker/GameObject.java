@@ -9,7 +9,8 @@ import javafx.scene.transform.Translate;
  * @summary It contains methods and fields that manage the common aspects of
  *          all game objects in our game.
  */
-abstract class GameObject extends Group implements Updatable {
+abstract class GameObject extends Group
+        implements Updatable, FrameHandler {
     protected Translate translate;
     protected Rotate rotate;
 
@@ -23,14 +24,24 @@ abstract class GameObject extends Group implements Updatable {
      * @brief update iterates through all
      *        children and calls their update method.
      */
-    public void update() {
+    public void update(double deltaTime) {
         for (Node node : getChildren()) {
             if (node instanceof Updatable) {
-                ((Updatable) node).update();
+                ((Updatable) node).update(deltaTime);
             }
         }
     }
 
+    /**
+     * @brief sync copies the state of the model behind this view into the
+     *        scene graph. It is called once per frame, after the simulation
+     *        steps, so nodes are only touched once per frame.
+     * @param alpha how far the frame is between the last two simulation
+     *              steps (0...1)
+     */
+    public void sync(double alpha) {
+    }
+
     /**
      * @brief Add a child to this GameObject.
      */
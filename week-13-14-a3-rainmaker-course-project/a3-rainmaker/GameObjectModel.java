@@ -0,0 +1,124 @@
+
+/**
+ * @brief GameObjectModel is the base of the simulation (model) hierarchy.
+ * @summary It holds the state of a game object without any JavaFX nodes, so
+ *          the simulation can be stepped headless (e.g. in tests or on a CI
+ *          box without a display). The matching GameObject is only a view of
+ *          this state and is synced once per frame. Position and heading
+ *          live in the columns of an EntityStore, indexed by entityId.
+ */
+abstract class GameObjectModel implements Updatable {
+    protected final EntityStore store;
+    protected final int entityId;
+    protected CollisionBody collisionBody;
+
+    /**
+     * @brief Creates a model with its own EntityStore, for objects that are
+     *        simulated on their own (e.g. in tests).
+     */
+    public GameObjectModel(double positionX, double positionY) {
+        this(new EntityStore(1), positionX, positionY);
+    }
+
+    /**
+     * @brief Creates a model whose state is kept in a shared EntityStore.
+     */
+    public GameObjectModel(EntityStore store,
+            double positionX, double positionY) {
+        this.store = store;
+        this.entityId = store.create(positionX, positionY);
+    }
+
+    /**
+     * @brief resetEntity puts the entity of a reused model back to the
+     *        given position, stationary and facing north.
+     */
+    protected void resetEntity(double positionX, double positionY) {
+        store.reset(entityId, positionX, positionY);
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * @return the collision shape of this object, or null if it does not
+     *         take part in collisions
+     */
+    public CollisionBody getCollisionBody() {
+        return collisionBody;
+    }
+
+    /**
+     * @brief moves the collision body to the current position.
+     */
+    public void syncCollisionBody() {
+        if (collisionBody != null) {
+            collisionBody.setCenter(getPositionX(), getPositionY());
+        }
+    }
+
+    public double getPositionX() {
+        return store.getPositionX(entityId);
+    }
+
+    public double getPositionY() {
+        return store.getPositionY(entityId);
+    }
+
+    public double getHeading() {
+        return store.getHeading(entityId);
+    }
+
+    /**
+     * @param alpha 0 is the previous simulation step, 1 is the current one
+     */
+    public double getInterpolatedX(double alpha) {
+        double previous = store.getPreviousPositionX(entityId);
+        return previous + (getPositionX() - previous) * alpha;
+    }
+
+    /**
+     * @param alpha 0 is the previous simulation step, 1 is the current one
+     */
+    public double getInterpolatedY(double alpha) {
+        double previous = store.getPreviousPositionY(entityId);
+        return previous + (getPositionY() - previous) * alpha;
+    }
+
+    /**
+     * @brief blends the heading along the shortest arc, so 355 -> 5 does not
+     *        spin backwards.
+     * @param alpha 0 is the previous simulation step, 1 is the current one
+     */
+    public double getInterpolatedHeading(double alpha) {
+        double previousHeading = store.getPreviousHeading(entityId);
+        double headingDelta = getHeading() - previousHeading;
+        if (headingDelta > 180) {
+            headingDelta -= 360;
+        } else if (headingDelta < -180) {
+            headingDelta += 360;
+        }
+        return previousHeading + headingDelta * alpha;
+    }
+
+    /**
+     * @brief step advances everything but the motion of this object. The
+     *        motion of all objects is integrated at once by
+     *        EntityStore.integrateAll(), see GameWorld.update().
+     * @param deltaTime the length of a simulation step in seconds
+     */
+    protected void step(double deltaTime) {
+    }
+
+    /**
+     * @brief update advances only this object by one simulation step.
+     * @param deltaTime the length of a simulation step in seconds
+     */
+    @Override
+    public void update(double deltaTime) {
+        store.savePreviousState(entityId);
+        this.step(deltaTime);
+        store.integrate(entityId, deltaTime);
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * @brief GameWorld is the headless simulation core of the game.
+ * @summary It owns the models of every object in the game world and steps
+ *          them once per fixed simulation step. It does not know about
+ *          JavaFX nodes, the Game pane only reads its state once per frame.
+ */
+class GameWorld implements Updatable {
+    /**
+     * The initial fuel value is set for playability
+     */
+    private static final int HELICOPTER_INITIAL_FUEL_CAPACITY = 25000;
+    private static final int NUMBER_OF_PONDS = 3;
+    private static final int NUMBER_OF_CLOUDS = 3;
+    private static final double POND_SIZE_LOWER_BOUND = 15.0;
+    private static final double POND_SIZE_UPPER_BOUND = 25.0;
+    private static final double CLOUD_SIZE_LOWER_BOUND = 30.0;
+    private static final double CLOUD_SIZE_UPPER_BOUND = 50.0;
+
+    private final EntityStore store = new EntityStore();
+    private final HelicopterModel helicopter;
+    private final List<PondModel> ponds = new ArrayList<>();
+    private final List<CloudModel> clouds = new ArrayList<>();
+    private final CollisionBody helipad;
+    private final SpatialHashGrid collisionGrid = new SpatialHashGrid(
+            Globals.COLLISION_CELL_SIZE);
+    private long seed;
+    // number of simulation steps since the world was built
+    private long tick;
+
+    public GameWorld() {
+        this(RandomStreams.global().stream("world").nextLong());
+    }
+
+    /**
+     * @param seed the seed the ponds and clouds are placed with, a world
+     *             built from the same seed is the same world
+     */
+    public GameWorld(long seed) {
+        for (int i = 0; i < NUMBER_OF_PONDS; i++) {
+            ponds.add(new PondModel(store, 0, 0, POND_SIZE_LOWER_BOUND));
+        }
+        for (int i = 0; i < NUMBER_OF_CLOUDS; i++) {
+            clouds.add(new CloudModel(store, 0, 0, CLOUD_SIZE_LOWER_BOUND));
+        }
+        helicopter = new HelicopterModel(store,
+                Globals.HELIPAD_COORDINATES.getX(),
+                Globals.HELIPAD_COORDINATES.getY(),
+                HELICOPTER_INITIAL_FUEL_CAPACITY);
+        helipad = CollisionBody.rectangle(this,
+                Globals.HELIPAD_DIMENSIONS.getWidth(),
+                Globals.HELIPAD_DIMENSIONS.getHeight());
+        helipad.setCenter(Globals.HELIPAD_COORDINATES.getX(),
+                Globals.HELIPAD_COORDINATES.getY());
+        reset(seed);
+    }
+
+    /**
+     * @brief reset turns this world into the world built from the given
+     *        seed, reusing its models, so restarting the game does not
+     *        allocate a new world.
+     * @summary The random numbers are drawn in the same order as a new world
+     *          would draw them, so a reset world and a new world built from
+     *          the same seed are the same world.
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        this.tick = 0;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (PondModel pond : ponds) {
+            pond.reset(
+                    Utility.generateRandomNumberInRange(random,
+                            0, Globals.POND_COORDINATES.getX()),
+                    Utility.generateRandomNumberInRange(random,
+                            0, Globals.POND_COORDINATES.getY()),
+                    Utility.generateRandomNumberInRange(random,
+                            POND_SIZE_LOWER_BOUND, POND_SIZE_UPPER_BOUND));
+        }
+        for (CloudModel cloud : clouds) {
+            cloud.reset(Globals.CLOUD_COORDINATES.getX(),
+                    Utility.generateRandomNumberInRange(random,
+                            0, Globals.CLOUD_COORDINATES.getY()),
+                    Utility.generateRandomNumberInRange(random,
+                            CLOUD_SIZE_LOWER_BOUND, CLOUD_SIZE_UPPER_BOUND));
+        }
+        helicopter.reset(Globals.HELIPAD_COORDINATES.getX(),
+                Globals.HELIPAD_COORDINATES.getY(),
+                HELICOPTER_INITIAL_FUEL_CAPACITY);
+        updateCollisionGrid();
+    }
+
+    /**
+     * @brief update advances every object in the world by one simulation
+     *        step and rebuilds the collision broadphase.
+     * @param deltaTime the length of a simulation step in seconds
+     */
+    @Override
+    public void update(double deltaTime) {
+        step(deltaTime);
+        updateCollisionGrid();
+    }
+
+    /**
+     * @brief step is the part of update() before the broadphase: each model
+     *        steps its own state, then the motion of every entity is
+     *        integrated in one batch pass over the EntityStore. It is separate
+     *        so that the game loop can time both parts on their own.
+     * @param deltaTime the length of a simulation step in seconds
+     */
+    void step(double deltaTime) {
+        store.savePreviousStateAll();
+        helicopter.step(deltaTime);
+        for (PondModel pond : ponds) {
+            pond.step(deltaTime);
+        }
+        for (CloudModel cloud : clouds) {
+            cloud.step(deltaTime);
+        }
+        store.integrateAll(deltaTime);
+        tick++;
+    }
+
+    /**
+     * @brief updateCollisionGrid moves every collision body to its entity's
+     *        position and re-registers it in the broadphase grid.
+     */
+    void updateCollisionGrid() {
+        collisionGrid.clear();
+        collisionGrid.insert(helipad);
+        for (PondModel pond : ponds) {
+            pond.syncCollisionBody();
+            collisionGrid.insert(pond.getCollisionBody());
+        }
+        for (CloudModel cloud : clouds) {
+            cloud.syncCollisionBody();
+            collisionGrid.insert(cloud.getCollisionBody());
+        }
+        helicopter.syncCollisionBody();
+        collisionGrid.insert(helicopter.getCollisionBody());
+    }
+
+    /**
+     * @brief seedClouds seeds every cloud that overlaps the helicopter.
+     */
+    public void seedClouds() {
+        collisionGrid.query(helicopter.getCollisionBody(), body -> {
+            if (body.getOwner() instanceof CloudModel) {
+                ((CloudModel) body.getOwner()).seed();
+            }
+        });
+    }
+
+    /**
+     * @return true if the helicopter overlaps the helipad
+     */
+    public boolean isHelicopterOverHelipad() {
+        return helicopter.getCollisionBody().overlaps(helipad);
+    }
+
+    /**
+     * @brief The broadphase holding every collision body of this world, as
+     *        of the last simulation step.
+     */
+    public SpatialHashGrid getCollisionGrid() {
+        return collisionGrid;
+    }
+
+    /**
+     * @return the number of simulation steps since the world was built
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @brief setTick is only for WorldSnapshot.restore().
+     */
+    void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * @return the seed this world was built from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public HelicopterModel getHelicopter() {
+        return helicopter;
+    }
+
+    public List<PondModel> getPonds() {
+        return ponds;
+    }
+
+    public List<CloudModel> getClouds() {
+        return clouds;
+    }
+
+    public EntityStore getEntityStore() {
+        return store;
+    }
+}
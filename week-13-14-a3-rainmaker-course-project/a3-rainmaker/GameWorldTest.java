@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GameWorldTest {
+    private GameWorld world;
+
+    @Before
+    public void setUp() throws Exception {
+        this.world = new GameWorld();
+    }
+
+    /**
+     * @brief Test that the world is populated without the JavaFX toolkit.
+     * @throws Exception
+     */
+    @Test
+    public void constructor_populatesWorldHeadless() throws Exception {
+        assertNotNull(this.world.getHelicopter());
+        assertEquals(3, this.world.getPonds().size());
+        assertEquals(3, this.world.getClouds().size());
+    }
+
+    /**
+     * @brief Test that thousands of simulation steps can run headless and
+     *        move the helicopter.
+     * @throws Exception
+     */
+    @Test
+    public void update_runsThousandsOfStepsHeadless() throws Exception {
+        HelicopterModel helicopter = this.world.getHelicopter();
+        double startY = helicopter.getPositionY();
+        helicopter.toggleIgnition();
+        helicopter.increaseSpeed();
+        for (int i = 0; i < 10000; i++) {
+            this.world.update(1.0 / 120);
+        }
+        assertNotEquals(startY, helicopter.getPositionY(), 0.0);
+    }
+
+    /**
+     * @brief Test that a played world reset from a seed is the same world as
+     *        a new world built from that seed, with the same models.
+     * @throws Exception
+     */
+    @Test
+    public void reset_matchesNewWorldAndReusesModels() throws Exception {
+        HelicopterModel helicopter = this.world.getHelicopter();
+        PondModel pond = this.world.getPonds().get(0);
+        helicopter.toggleIgnition();
+        helicopter.increaseSpeed();
+        for (int i = 0; i < 1000; i++) {
+            this.world.update(1.0 / 120);
+        }
+        this.world.reset(42);
+        assertArrayEquals(
+                WorldSnapshot.capture(new GameWorld(42)).toBytes(),
+                WorldSnapshot.capture(this.world).toBytes());
+        assertEquals(helicopter, this.world.getHelicopter());
+        assertEquals(pond, this.world.getPonds().get(0));
+    }
+}
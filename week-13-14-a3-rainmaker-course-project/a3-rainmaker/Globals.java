@@ -1,17 +1,46 @@
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Point2D;
-import javafx.scene.image.Image;
 
 /**
  * @brief Globals class provides a place to store all global/static constants.
  */
 class Globals {
     public static final String GAME_TITLE = "Rainmaker A3";
+    /**
+     * @brief The simulation runs at a fixed rate independent of the display
+     *        refresh rate, see FixedTimestep.
+     */
+    public static final double SIMULATION_STEPS_PER_SECOND = 120;
+    /**
+     * @brief The most simulation steps run in a single frame before the
+     *        backlog is dropped (avoids the "spiral of death").
+     */
+    public static final int MAX_SIMULATION_STEPS_PER_FRAME = 8;
+    /**
+     * @brief The game can be rewound by REWIND_SECONDS at a time, up to
+     *        REWIND_BUFFER_SECONDS back, see RewindBuffer. A snapshot is kept
+     *        REWIND_SNAPSHOTS_PER_SECOND times per second.
+     */
+    public static final double REWIND_SECONDS = 5;
+    public static final double REWIND_BUFFER_SECONDS = 30;
+    public static final double REWIND_SNAPSHOTS_PER_SECOND = 20;
+    public static final int REWIND_KEYFRAME_INTERVAL = 32;
+    /**
+     * @brief Speeds, fuel burn and blade spin were tuned as amounts per frame
+     *        at 60 FPS. Multiplying by (deltaTime * REFERENCE_FRAME_RATE)
+     *        converts them to amounts per simulation step.
+     */
+    public static final double REFERENCE_FRAME_RATE = 60;
     public static final Dimension2D GAME_APP_DIMENSIONS = new Dimension2D(
             800,
             800);
-    public static final Image GAME_MAP_IMAGE = new Image(
-            "textures/map/rainmaker_a3_map_dry_desert.png");
+    /**
+     * @brief Only the path is kept here (the Image is loaded by GameApp) so
+     *        that the headless simulation can read Globals without starting
+     *        the JavaFX toolkit.
+     */
+    public static final String GAME_MAP_IMAGE_PATH =
+            "textures/map/rainmaker_a3_map_dry_desert.png";
     /**
      * @brief The Helipad centered on half the width
      *        and lower 1/7th the height of the game world.
@@ -20,6 +49,9 @@ class Globals {
             (GAME_APP_DIMENSIONS.getWidth() / 2),
             (GAME_APP_DIMENSIONS.getHeight()
                     - (GAME_APP_DIMENSIONS.getHeight() / 7)));
+    public static final Dimension2D HELIPAD_DIMENSIONS = new Dimension2D(
+            100,
+            100);
     public static Point2D POND_COORDINATES = new Point2D(
             (GAME_APP_DIMENSIONS.getWidth()),
             (GAME_APP_DIMENSIONS.getHeight()
@@ -28,4 +60,9 @@ class Globals {
             (GAME_APP_DIMENSIONS.getWidth() / 2),
             (GAME_APP_DIMENSIONS.getHeight()
                     - (GAME_APP_DIMENSIONS.getHeight() / 3)));
+    /**
+     * @brief The size of a cell of the collision grid (SpatialHashGrid),
+     *        about the size of a cloud.
+     */
+    public static final double COLLISION_CELL_SIZE = 100;
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+
+/**
+ * @brief HelicopterModel is the simulation state of the Helicopter: ignition,
+ *        speed, heading, fuel and the spin of the main blade.
+ */
+class HelicopterModel extends MoveableObjectModel implements Steerable {
+    private boolean isIgnitionOn;
+    private final double HOVER_SPEED_0 = 0;
+    private final double MAX_FORWARD_SPEED = 10.0;
+    private final double MAX_REVERSE_SPEED = 2.0;
+    private final double SPEED_STEP_VALUE = 0.5;
+    private final double STEERING_ANGLE_INCREMENT = 5;
+    private final int FUEL_BURN_RATE = 5;
+    private final double MAX_BLADE_SPEED = 120;
+    private final double COLLISION_RADIUS = 30;
+    private double fuelGauge;
+    private double bladeSpeed;
+    private double bladeAngle;
+
+    public HelicopterModel(double positionX, double positionY,
+            int fuelCapacity) {
+        this(new EntityStore(1), positionX, positionY, fuelCapacity);
+    }
+
+    public HelicopterModel(EntityStore store,
+            double positionX, double positionY, int fuelCapacity) {
+        super(store, positionX, positionY);
+        this.collisionBody = CollisionBody.circle(this, COLLISION_RADIUS);
+        this.reset(positionX, positionY, fuelCapacity);
+    }
+
+    /**
+     * @brief reset parks the helicopter with its engine off and a full tank,
+     *        so the model can be reused when the game is restarted.
+     */
+    public void reset(double positionX, double positionY, int fuelCapacity) {
+        this.resetEntity(positionX, positionY);
+        this.syncCollisionBody();
+        this.setIgnition(false);
+        this.setFuelGauge(fuelCapacity);
+        this.bladeSpeed = 0;
+        this.bladeAngle = 0;
+    }
+
+    /**
+     * @brief increaseSpeed of the helicopter by specified step value
+     *        above 0 speed (hover) and below MAX_SPEED. If the helicopter
+     *        is in reverse increasing speed will put it in forward.
+     */
+    public void increaseSpeed() {
+        this.setSpeed(Math.min(
+                Math.max(HOVER_SPEED_0, getSpeed() + SPEED_STEP_VALUE),
+                MAX_FORWARD_SPEED));
+    }
+
+    /**
+     * @brief decreaseSpeed of the helicopter by specified step value
+     *        above 0 (hover). Decreasing the speed below 0 (hover) will
+     *        put the helicopter in reverse by the minimum speed.
+     */
+    public void decreaseSpeed() {
+        this.setSpeed((getSpeed() <= HOVER_SPEED_0) // Are we in reverse?
+                ? -MAX_REVERSE_SPEED // Put in reverse from 0 speed (hover)
+                // decrease speed by step value but not 0 (hover)
+                : Math.max(HOVER_SPEED_0, (getSpeed() - SPEED_STEP_VALUE)));
+    }
+
+    public void toggleIgnition() {
+        this.setIgnition(!isIgnitionOn);
+    }
+
+    /**
+     * @brief the helicopter only moves while the ignition is on.
+     */
+    private void setIgnition(boolean isIgnitionOn) {
+        this.isIgnitionOn = isIgnitionOn;
+        store.setMoving(entityId, isIgnitionOn);
+    }
+
+    public boolean isIgnitionOn() {
+        return isIgnitionOn;
+    }
+
+    public int getFuelGauge() {
+        return (int) fuelGauge;
+    }
+
+    private void setFuelGauge(double fuel) {
+        this.fuelGauge = fuel;
+    }
+
+    public double getBladeAngle() {
+        return bladeAngle;
+    }
+
+    double getBladeSpeed() {
+        return bladeSpeed;
+    }
+
+    /**
+     * @return the fuel left, without rounding to whole units
+     */
+    double getFuel() {
+        return fuelGauge;
+    }
+
+    /**
+     * @brief restoreState sets the state that is not kept in the
+     *        EntityStore, see WorldSnapshot.
+     */
+    void restoreState(boolean isIgnitionOn, double fuel,
+            double bladeSpeed, double bladeAngle) {
+        this.setIgnition(isIgnitionOn);
+        this.setFuelGauge(fuel);
+        this.bladeSpeed = bladeSpeed;
+        this.bladeAngle = bladeAngle;
+    }
+
+    @Override
+    public void steerLeft() {
+        setNormalizedAngle(getHeading() - STEERING_ANGLE_INCREMENT);
+    }
+
+    @Override
+    public void steerRight() {
+        setNormalizedAngle(getHeading() + STEERING_ANGLE_INCREMENT);
+    }
+
+    /**
+     * @brief spinBlade spins the blade up to its maximum speed.
+     */
+    private void spinBlade(double deltaTime) {
+        double frames = deltaTime * Globals.REFERENCE_FRAME_RATE;
+        this.bladeSpeed = Math.min(MAX_BLADE_SPEED, bladeSpeed + frames);
+        this.bladeAngle = (bladeAngle + bladeSpeed * frames) % 360;
+    }
+
+    @Override
+    protected void step(double deltaTime) {
+        this.spinBlade(deltaTime);
+        if (!isIgnitionOn) {
+            return;
+        }
+        this.setFuelGauge(Math.max(0, this.fuelGauge - FUEL_BURN_RATE
+                * deltaTime * Globals.REFERENCE_FRAME_RATE));
+    }
+
+    @Override
+    public String toString() {
+        return "Helicopter: "
+                + "isIgnitionOn: " + this.isIgnitionOn
+                + ", Angle: " + this.getHeading()
+                + ", Speed: " + this.getSpeed()
+                + ", Fuel Gauge: " + this.getFuelGauge();
+    }
+}
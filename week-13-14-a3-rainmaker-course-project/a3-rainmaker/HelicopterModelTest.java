@@ -0,0 +1,90 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HelicopterModelTest {
+    private static final double STEP_SECONDS = 1.0 / 120;
+    private HelicopterModel helicopter;
+
+    @Before
+    public void setUp() throws Exception {
+        this.helicopter = new HelicopterModel(0, 0, 25000);
+    }
+
+    /**
+     * @brief Test that the helicopter does not move or burn fuel while the
+     *        ignition is off.
+     * @throws Exception
+     */
+    @Test
+    public void ignitionOff_doesNotMoveOrBurnFuel() throws Exception {
+        this.helicopter.increaseSpeed();
+        for (int i = 0; i < 1000; i++) {
+            this.helicopter.update(STEP_SECONDS);
+        }
+        assertFalse(this.helicopter.isIgnitionOn());
+        assertEquals(0, this.helicopter.getPositionY(), 0.0);
+        assertEquals(25000, this.helicopter.getFuelGauge());
+    }
+
+    /**
+     * @brief Test that the speed is clamped between reverse and maximum
+     *        forward speed.
+     * @throws Exception
+     */
+    @Test
+    public void speed_isClamped() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            this.helicopter.increaseSpeed();
+        }
+        assertEquals(10.0, this.helicopter.getSpeed(), 0.0);
+        for (int i = 0; i < 100; i++) {
+            this.helicopter.decreaseSpeed();
+        }
+        assertEquals(-2.0, this.helicopter.getSpeed(), 0.0);
+    }
+
+    /**
+     * @brief Test that steering wraps the heading into 0...360.
+     * @throws Exception
+     */
+    @Test
+    public void steering_wrapsHeading() throws Exception {
+        this.helicopter.steerLeft();
+        assertEquals(355, this.helicopter.getHeading(), 0.0);
+        this.helicopter.steerRight();
+        assertEquals(0, this.helicopter.getHeading(), 0.0);
+    }
+
+    /**
+     * @brief Test that one second of flight covers the same distance and
+     *        burns the same fuel regardless of the step length.
+     * @throws Exception
+     */
+    @Test
+    public void oneSecondOfFlight_isIndependentOfStepLength()
+            throws Exception {
+        HelicopterModel coarse = flyForOneSecond(1.0 / 60);
+        HelicopterModel fine = flyForOneSecond(1.0 / 240);
+        assertEquals(coarse.getPositionY(), fine.getPositionY(), 1e-6);
+        assertEquals(coarse.getFuelGauge(), fine.getFuelGauge(), 1);
+        // 10 px per frame at 60 FPS, y axis is inverted
+        assertEquals(-600, fine.getPositionY(), 1e-6);
+        assertTrue(fine.getFuelGauge() < 25000);
+    }
+
+    private HelicopterModel flyForOneSecond(double stepSeconds) {
+        HelicopterModel model = new HelicopterModel(0, 0, 25000);
+        model.toggleIgnition();
+        for (int i = 0; i < 20; i++) {
+            model.increaseSpeed();
+        }
+        for (int i = 0; i < Math.round(1.0 / stepSeconds); i++) {
+            model.update(stepSeconds);
+        }
+        return model;
+    }
+}
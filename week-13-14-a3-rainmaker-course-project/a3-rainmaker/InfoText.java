@@ -0,0 +1,90 @@
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * @brief InfoText is the in-game label of a number: the fuel of the
+ *        helicopter ("Fuel:25000") or how full a pond or cloud is ("42%").
+ * @summary setValue() is called every frame but the value is shown as a whole
+ *          number, so the Text node (and with it layout and text bounds) is
+ *          only touched when that whole number changes. The strings of 0...100
+ *          are built once per label and reused, so steady frames cost a
+ *          compare and changing percentages do not allocate.
+ */
+class InfoText extends GameText {
+    private static final int FONT_SIZE = 15;
+    private static final int FUEL_TEXT_OFFSET = 50;
+    private static final int CACHED_VALUES = 101;
+
+    private final String prefix;
+    private final String suffix;
+    private final String[] cachedText = new String[CACHED_VALUES];
+    private long shownValue;
+
+    private InfoText(String prefix, long value, String suffix, Color color) {
+        super(prefix + value + suffix, FONT_SIZE);
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.shownValue = value;
+        this.setFill(color);
+    }
+
+    /**
+     * @brief fuelGauge is the red fuel text below the helicopter.
+     */
+    public static InfoText fuelGauge(int fuel) {
+        InfoText text = new InfoText("Fuel:", fuel, "", Color.RED);
+        text.setTranslateY(FUEL_TEXT_OFFSET);
+        return text;
+    }
+
+    /**
+     * @brief pondPercentage is the white percentage in the middle of a pond.
+     */
+    public static InfoText pondPercentage(double percentage) {
+        return percentage(percentage, Color.WHITE);
+    }
+
+    /**
+     * @brief cloudSaturation is the black percentage in the middle of a cloud.
+     */
+    public static InfoText cloudSaturation(double percentage) {
+        return percentage(percentage, Color.BLACK);
+    }
+
+    private static InfoText percentage(double percentage, Color color) {
+        InfoText text = new InfoText("", Math.round(percentage), "%", color);
+        text.setFont(Font.font(text.getFont().getFamily(),
+                FontWeight.BOLD,
+                text.getFont().getSize()));
+        return text;
+    }
+
+    public long getShownValue() {
+        return shownValue;
+    }
+
+    /**
+     * @brief setValue shows the value rounded to a whole number, the Text is
+     *        only changed when the rounded number is not the one shown.
+     */
+    public void setValue(double value) {
+        long rounded = Math.round(value);
+        if (rounded == shownValue) {
+            return;
+        }
+        shownValue = rounded;
+        setText(textOf(rounded));
+    }
+
+    private String textOf(long value) {
+        if (value < 0 || value >= CACHED_VALUES) {
+            return prefix + value + suffix;
+        }
+        int index = (int) value;
+        if (cachedText[index] == null) {
+            cachedText[index] = prefix + value + suffix;
+        }
+        return cachedText[index];
+    }
+}
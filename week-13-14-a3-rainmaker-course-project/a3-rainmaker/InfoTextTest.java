@@ -0,0 +1,61 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InfoTextTest {
+    private InfoText percentageText;
+    private int textChanges;
+
+    @Before
+    public void setUp() throws Exception {
+        this.percentageText = InfoText.pondPercentage(10);
+        this.textChanges = 0;
+        this.percentageText.textProperty()
+                .addListener((observable, oldText, newText) -> textChanges++);
+    }
+
+    /**
+     * @brief Test that the text is only changed when the shown whole number
+     *        changes.
+     * @throws Exception
+     */
+    @Test
+    public void setValue_onlyChangesTextWhenTheNumberChanges() throws Exception {
+        for (int frame = 0; frame < 1000; frame++) {
+            percentageText.setValue(10 + frame * 0.0001);
+        }
+        assertEquals(0, textChanges);
+        percentageText.setValue(11);
+        assertEquals(1, textChanges);
+        assertEquals("11%", percentageText.getText());
+    }
+
+    /**
+     * @brief Test that the text of a percentage is built once and reused.
+     * @throws Exception
+     */
+    @Test
+    public void setValue_reusesTheTextOfAPercentage() throws Exception {
+        percentageText.setValue(42);
+        String text = percentageText.getText();
+        percentageText.setValue(43);
+        percentageText.setValue(42);
+        assertSame(text, percentageText.getText());
+    }
+
+    /**
+     * @brief Test that the fuel gauge keeps its prefix.
+     * @throws Exception
+     */
+    @Test
+    public void fuelGauge_showsPrefixAndValue() throws Exception {
+        InfoText fuelText = InfoText.fuelGauge(25000);
+        assertEquals("Fuel:25000", fuelText.getText());
+        fuelText.setValue(24999.6);
+        assertEquals("Fuel:25000", fuelText.getText());
+        fuelText.setValue(24999.4);
+        assertEquals("Fuel:24999", fuelText.getText());
+    }
+}
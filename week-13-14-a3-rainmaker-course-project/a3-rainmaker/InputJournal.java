@@ -0,0 +1,188 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * @brief InputJournal records the commands of one game together with the
+ *        simulation step (tick) they were applied at, so the game can be
+ *        replayed headless by ReplayRunner.
+ * @summary A game is fully determined by the seed its world was built from,
+ *          the fixed step length and the commands per tick, so that is all
+ *          the journal keeps. In a file every command is one byte for the
+ *          command and the ticks since the previous command as a varint
+ *          (usually one or two bytes):
+ *
+ *          int magic "RMJ1", int version, long world seed, double step
+ *          seconds, varint end tick, varint command count, then per command
+ *          varint tick delta and byte command id.
+ */
+class InputJournal {
+    private static final int MAGIC = 0x524d4a31; // "RMJ1"
+    private static final int VERSION = 1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long worldSeed;
+    private final double stepSeconds;
+    private long[] ticks = new long[INITIAL_CAPACITY];
+    private byte[] commands = new byte[INITIAL_CAPACITY];
+    private int size;
+    private long endTick;
+
+    /**
+     * @param worldSeed   the seed the world of the game was built from
+     * @param stepSeconds the length of a simulation step in seconds
+     */
+    public InputJournal(long worldSeed, double stepSeconds) {
+        this.worldSeed = worldSeed;
+        this.stepSeconds = stepSeconds;
+    }
+
+    /**
+     * @brief reset empties the journal for a new game, keeping its arrays.
+     */
+    public void reset(long worldSeed) {
+        this.worldSeed = worldSeed;
+        this.size = 0;
+        this.endTick = 0;
+    }
+
+    /**
+     * @brief record adds a command applied before the simulation step with
+     *        the given number. Ticks must not decrease.
+     */
+    public void record(long tick, GameCommand command) {
+        if (tick < endTick) {
+            throw new IllegalArgumentException(
+                    "tick " + tick + " is before tick " + endTick);
+        }
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            commands = Arrays.copyOf(commands, size * 2);
+        }
+        ticks[size] = tick;
+        commands[size] = (byte) command.ordinal();
+        size++;
+        endTick = tick;
+    }
+
+    /**
+     * @brief setEndTick sets how many steps the game ran, so a replay runs
+     *        past the last command to the end of the game.
+     */
+    public void setEndTick(long tick) {
+        endTick = Math.max(endTick, tick);
+    }
+
+    /**
+     * @brief truncate forgets the commands at or after the given tick, e.g.
+     *        when the game was rewound to it.
+     */
+    public void truncate(long tick) {
+        while (size > 0 && ticks[size - 1] >= tick) {
+            size--;
+        }
+        endTick = tick;
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public double getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTick(int index) {
+        return ticks[index];
+    }
+
+    public GameCommand getCommand(int index) {
+        return GameCommand.of(commands[index]);
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(worldSeed);
+            out.writeDouble(stepSeconds);
+            writeVarLong(out, endTick);
+            writeVarLong(out, size);
+            long previousTick = 0;
+            for (int i = 0; i < size; i++) {
+                writeVarLong(out, ticks[i] - previousTick);
+                out.writeByte(commands[i]);
+                previousTick = ticks[i];
+            }
+        }
+    }
+
+    public static InputJournal read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not an input journal");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported journal version " + version);
+            }
+            InputJournal journal = new InputJournal(in.readLong(),
+                    in.readDouble());
+            long endTick = readVarLong(in);
+            long count = readVarLong(in);
+            long tick = 0;
+            for (long i = 0; i < count; i++) {
+                tick += readVarLong(in);
+                journal.record(tick, GameCommand.of(in.readUnsignedByte()));
+            }
+            journal.setEndTick(endTick);
+            return journal;
+        }
+    }
+
+    /**
+     * @brief writeVarLong writes 7 bits per byte, low bits first, the high
+     *        bit of a byte is set when more bytes follow.
+     */
+    private static void writeVarLong(DataOutputStream out, long value)
+            throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    @Override
+    public String toString() {
+        return "InputJournal{seed=" + worldSeed + ", commands=" + size
+                + ", endTick=" + endTick + "}";
+    }
+}
@@ -0,0 +1,79 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InputJournalTest {
+    private static final long WORLD_SEED = 133;
+    private static final double STEP_SECONDS = 1.0 / 120;
+    private InputJournal journal;
+
+    @Before
+    public void setUp() throws Exception {
+        this.journal = new InputJournal(WORLD_SEED, STEP_SECONDS);
+    }
+
+    /**
+     * @brief Test that a journal reads back the same commands and ticks it
+     *        was written with, a few bytes per command.
+     * @throws Exception
+     */
+    @Test
+    public void writeThenRead_keepsCommandsAndTicks() throws Exception {
+        this.journal.record(0, GameCommand.TOGGLE_IGNITION);
+        this.journal.record(0, GameCommand.INCREASE_SPEED);
+        this.journal.record(300, GameCommand.STEER_LEFT);
+        this.journal.record(100_000, GameCommand.SEED_CLOUDS);
+        this.journal.setEndTick(200_000);
+        Path file = Files.createTempFile("journal", ".rmj");
+        try {
+            this.journal.write(file);
+            InputJournal read = InputJournal.read(file);
+            assertEquals(WORLD_SEED, read.getWorldSeed());
+            assertEquals(STEP_SECONDS, read.getStepSeconds(), 0);
+            assertEquals(200_000, read.getEndTick());
+            assertEquals(4, read.size());
+            assertEquals(300, read.getTick(2));
+            assertEquals(GameCommand.SEED_CLOUDS, read.getCommand(3));
+            // header (28 bytes) plus at most 4 bytes per command
+            assertTrue(Files.size(file) <= 28 + 4 * 4);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * @brief Test that replaying a journal ends in the same state as the
+     *        session that recorded it.
+     * @throws Exception
+     */
+    @Test
+    public void replay_reproducesTheRecordedSession() throws Exception {
+        GameWorld live = new GameWorld(WORLD_SEED);
+        GameCommand[] script = { GameCommand.TOGGLE_IGNITION,
+                GameCommand.INCREASE_SPEED, GameCommand.STEER_RIGHT,
+                GameCommand.SEED_CLOUDS, GameCommand.INCREASE_SPEED };
+        for (int step = 0; step < 5000; step++) {
+            if (step % 700 == 0) {
+                GameCommand command = script[(step / 700) % script.length];
+                command.apply(live);
+                this.journal.record(live.getTick(), command);
+            }
+            live.update(STEP_SECONDS);
+        }
+        this.journal.setEndTick(live.getTick());
+
+        GameWorld replayed = ReplayRunner.replay(this.journal);
+        assertEquals(live.getTick(), replayed.getTick());
+        assertEquals(live.getHelicopter().getPositionX(),
+                replayed.getHelicopter().getPositionX(), 0);
+        assertEquals(live.getHelicopter().getPositionY(),
+                replayed.getHelicopter().getPositionY(), 0);
+        assertEquals(live.getHelicopter().getFuelGauge(),
+                replayed.getHelicopter().getFuelGauge());
+    }
+}
@@ -2,42 +2,24 @@ import javafx.geometry.Point2D;
 
 /**
  * @brief MoveableObject is a GameObject that can move.
+ * @summary The simulation state (position and heading) is kept in a
+ *          MoveableObjectModel. The translate and rotate transforms are only
+ *          written by sync(), which blends the previous and current
+ *          simulation state for the frame being drawn.
  */
 abstract class MoveableObject extends GameObject {
-    protected double speed;
+    protected MoveableObjectModel model;
 
-    abstract protected void move(); // all objects moves are differently
-
-    public MoveableObject(Point2D location) {
-        super(location);
-        this.speed = 0.0;
-        this.rotate.setAngle(0);
-    }
-
-    /**
-     * Converts a direction in degrees (0...360) to x and y coordinates.
-     * 
-     * @return A Point2D object with x and y coordinates of the vector.
-     */
-    protected Point2D directionToVector() {
-        double radians = Math.toRadians(this.rotate.getAngle());
-        // y is negative because y axis is inverted
-        return new Point2D(
-                (this.speed * Math.sin(radians)),
-                -(this.speed * Math.cos(radians)));
-    }
-
-    protected void setNormalizedAngle(double compassAngle) {
-        if (compassAngle < 0) {
-            compassAngle += 360;
-        } else if (compassAngle >= 360) {
-            compassAngle -= 360;
-        }
-        this.rotate.setAngle(compassAngle);
+    public MoveableObject(MoveableObjectModel model) {
+        super(new Point2D(model.getPositionX(), model.getPositionY()));
+        this.model = model;
+        this.rotate.setAngle(model.getHeading());
     }
 
     @Override
-    public void update() {
-        super.update();
+    public void sync(double alpha) {
+        this.translate.setX(model.getInterpolatedX(alpha));
+        this.translate.setY(model.getInterpolatedY(alpha));
+        this.rotate.setAngle(model.getInterpolatedHeading(alpha));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+
+/**
+ * @brief MoveableObjectModel is the simulation state of a GameObject that can
+ *        move. Objects move along their heading at their speed, which is
+ *        integrated by the EntityStore.
+ */
+abstract class MoveableObjectModel extends GameObjectModel {
+
+    public MoveableObjectModel(double positionX, double positionY) {
+        super(positionX, positionY);
+    }
+
+    public MoveableObjectModel(EntityStore store,
+            double positionX, double positionY) {
+        super(store, positionX, positionY);
+    }
+
+    public double getSpeed() {
+        return store.getSpeed(entityId);
+    }
+
+    protected void setSpeed(double speed) {
+        store.setSpeed(entityId, speed);
+    }
+
+    /**
+     * @brief The x component of the velocity (speed along the heading).
+     */
+    protected double getVelocityX() {
+        return store.getVelocityX(entityId);
+    }
+
+    /**
+     * @brief The y component of the velocity (speed along the heading).
+     */
+    protected double getVelocityY() {
+        return store.getVelocityY(entityId);
+    }
+
+    protected void setNormalizedAngle(double compassAngle) {
+        if (compassAngle < 0) {
+            compassAngle += 360;
+        } else if (compassAngle >= 360) {
+            compassAngle -= 360;
+        }
+        store.setHeading(entityId, compassAngle);
+    }
+}
@@ -1,53 +1,50 @@
 import javafx.geometry.Point2D;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
-import javafx.scene.transform.Scale;
 
-class Pond extends FixedObject {
+/**
+ * @brief Pond is the view of a PondModel.
+ */
+class Pond extends FixedObject implements PooledView<PondModel> {
     private Circle pond;
-    private double pondPercentage;
+    private PondModel pondModel;
     private final Color POND_COLOR = Color.BLUE;
-    private final double POND_SIZE_LOWER_BOUND = 15.0;
-    private final double POND_SIZE_UPPER_BOUND = 25.0;
 
-    private PondPercentageInfoText pondPercentageInfoText;
+    private InfoText pondPercentageInfoText;
 
-    public Pond(Point2D location) {
-        super(location);
-        this.pondPercentage = Utility.generateRandomNumberInRange(
-                POND_SIZE_LOWER_BOUND,
-                POND_SIZE_UPPER_BOUND);
-        this.pond = new Circle(pondPercentage);
+    public Pond(PondModel model) {
+        super(new Point2D(model.getPositionX(), model.getPositionY()));
+        this.pondModel = model;
+        this.pond = new Circle(model.getInitialRadius());
         this.pond.setFill(POND_COLOR);
         this.pond.setStroke(Color.BLACK);
         this.pond.setStrokeWidth(1);
+        // the only transform of the circle, sync() changes its factor
+        this.pond.getTransforms().add(scale);
         this.add(pond);
-        pondPercentageInfoText = new PondPercentageInfoText(pondPercentage);
+        pondPercentageInfoText = InfoText.pondPercentage(
+                model.getPondPercentage());
         this.add(pondPercentageInfoText);
     }
 
-    private double getPondPercentage() {
-        return pondPercentage;
-    }
-
-    private void setPondPercentage(double pondPercentage) {
-        this.pondPercentage += pondPercentage;
-    }
-
-    private Scale getScale() {
-        return scale;
-    }
-
-    private void setScale(Scale scale) {
-        this.scale = scale;
+    @Override
+    public void bind(PondModel model) {
+        this.pondModel = model;
+        this.translate.setX(model.getPositionX());
+        this.translate.setY(model.getPositionY());
+        this.pond.setRadius(model.getInitialRadius());
+        this.sync(1);
     }
 
     @Override
-    public void update() {
+    public void sync(double alpha) {
         // update pond percentage text to reflect current pond percentage
-        pondPercentageInfoText.setText(
-                String.format("%.0f", getPondPercentage()) + "%");
-        // update scale of pond
-        pond.getTransforms().add(scale);
+        pondPercentageInfoText.setValue(pondModel.getPondPercentage());
+        // update scale of pond, from the area of the water
+        double factor = pondModel.getScale();
+        if (scale.getX() != factor) {
+            scale.setX(factor);
+            scale.setY(factor);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+
+/**
+ * @brief PondModel is the simulation state of a Pond: how full it is.
+ * @summary The pond starts with its percentage as radius. Rainfall must
+ *          increase the area, not the radius (pi*r^2): the water area grows
+ *          in proportion to the percentage and the radius follows from it.
+ */
+class PondModel extends GameObjectModel {
+    private double initialPercentage;
+    private double initialRadius;
+    private double pondPercentage;
+
+    public PondModel(double positionX, double positionY,
+            double pondPercentage) {
+        this(new EntityStore(1), positionX, positionY, pondPercentage);
+    }
+
+    public PondModel(EntityStore store,
+            double positionX, double positionY, double pondPercentage) {
+        super(store, positionX, positionY);
+        this.collisionBody = CollisionBody.circle(this, pondPercentage);
+        this.reset(positionX, positionY, pondPercentage);
+    }
+
+    /**
+     * @brief reset turns this model into a new pond, so the model can be
+     *        reused when the game is restarted.
+     */
+    public void reset(double positionX, double positionY,
+            double pondPercentage) {
+        this.resetEntity(positionX, positionY);
+        this.initialPercentage = pondPercentage;
+        this.initialRadius = pondPercentage;
+        this.setPondPercentage(pondPercentage);
+        // ponds are fixed objects
+        store.setMoving(entityId, false);
+    }
+
+    public double getPondPercentage() {
+        return pondPercentage;
+    }
+
+    public void addPondPercentage(double pondPercentage) {
+        setPondPercentage(this.pondPercentage + pondPercentage);
+    }
+
+    void setPondPercentage(double pondPercentage) {
+        this.pondPercentage = pondPercentage;
+        // the body is only resized when it rains, not every step
+        this.collisionBody.setRadius(getRadius());
+        this.syncCollisionBody();
+    }
+
+    public double getInitialRadius() {
+        return initialRadius;
+    }
+
+    /**
+     * @brief getWaterArea is the surface of the water, proportional to the
+     *        pond percentage.
+     */
+    public double getWaterArea() {
+        if (initialPercentage <= 0) {
+            return 0;
+        }
+        return Math.PI * initialRadius * initialRadius
+                * pondPercentage / initialPercentage;
+    }
+
+    public double getRadius() {
+        return Math.sqrt(getWaterArea() / Math.PI);
+    }
+
+    /**
+     * @return the radius relative to the radius the pond started with, the
+     *         factor the view scales its circle by
+     */
+    public double getScale() {
+        return (initialRadius > 0) ? getRadius() / initialRadius : 1;
+    }
+}
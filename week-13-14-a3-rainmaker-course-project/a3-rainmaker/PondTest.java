@@ -0,0 +1,81 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PondTest {
+    private static final int NUMBER_OF_UPDATES = 10_000;
+    private PondModel pondModel;
+    private Pond pond;
+
+    @Before
+    public void setUp() throws Exception {
+        this.pondModel = new PondModel(100, 100, 20);
+        this.pond = new Pond(pondModel);
+    }
+
+    /**
+     * @brief Test that the pond circle keeps a single scale transform no
+     *        matter how many frames are drawn.
+     * @throws Exception
+     */
+    @Test
+    public void transformCount_isConstantOverManyUpdates() throws Exception {
+        int transforms = pondCircleTransformCount();
+        for (int i = 0; i < NUMBER_OF_UPDATES; i++) {
+            pondModel.addPondPercentage(0.001);
+            pond.sync(1);
+        }
+        assertEquals(1, transforms);
+        assertEquals(transforms, pondCircleTransformCount());
+    }
+
+    /**
+     * @brief Test that drawing many frames does not keep allocating memory
+     *        that stays reachable from the pond.
+     * @throws Exception
+     */
+    @Test
+    public void memory_doesNotGrowOverManyUpdates() throws Exception {
+        syncFrames(NUMBER_OF_UPDATES);
+        long before = usedMemory();
+        syncFrames(NUMBER_OF_UPDATES);
+        long after = usedMemory();
+        assertTrue("grew by " + (after - before) + " bytes",
+                after - before < 256 * 1024);
+    }
+
+    /**
+     * @brief Test that rain increases the area of the water, not the radius.
+     * @throws Exception
+     */
+    @Test
+    public void scale_followsTheWaterArea() throws Exception {
+        double area = pondModel.getWaterArea();
+        pondModel.addPondPercentage(pondModel.getPondPercentage());
+        pond.sync(1);
+        assertEquals(2 * area, pondModel.getWaterArea(), 1e-9);
+        assertEquals(Math.sqrt(2), pond.scale.getX(), 1e-9);
+        assertEquals(Math.sqrt(2), pond.scale.getY(), 1e-9);
+    }
+
+    private void syncFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            pond.sync(1);
+        }
+    }
+
+    private int pondCircleTransformCount() {
+        // the circle is the first child, the text the second
+        return pond.getChildren().get(0).getTransforms().size();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
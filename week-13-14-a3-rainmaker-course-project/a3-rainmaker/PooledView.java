@@ -0,0 +1,12 @@
+/**
+ * @brief PooledView is a view that can be bound to another model, so its
+ *        node subtree can be reused by a ViewPool instead of being built
+ *        again.
+ */
+interface PooledView<M> {
+    /**
+     * @brief bind makes this view show the given model, as if the view had
+     *        just been built for it.
+     */
+    void bind(M model);
+}
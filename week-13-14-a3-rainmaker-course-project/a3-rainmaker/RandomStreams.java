@@ -0,0 +1,107 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * @brief RandomStreams hands out one seeded random stream per subsystem
+ *        ("world", "boids", ...) instead of a single static Random shared by
+ *        all of them.
+ * @summary Every stream is derived from the root seed and the name of its
+ *          subsystem only, so a subsystem draws the same numbers no matter
+ *          which other subsystems exist or in which order they were created,
+ *          and a whole run can be reproduced from the root seed. The streams
+ *          are SplittableRandom, which is not thread-safe: a stream belongs to
+ *          the thread of its subsystem, and parallel workers get their own
+ *          generator with split() before they start, so they never contend
+ *          on a shared seed. The root seed of global() is read from the system
+ *          property "rng.seed" and logged, so any run can be repeated with
+ *          -Drng.seed=...; a value that is not a number is reported and
+ *          ignored.
+ */
+class RandomStreams {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final GameLog LOG = GameLog.global();
+    private static final GameLog.Key SEED = LOG.key(
+            "rng", GameLog.Level.INFO);
+    private static final GameLog.Key BAD_SEED = LOG.key(
+            "rng", GameLog.Level.WARN);
+    private static RandomStreams global;
+
+    private final long seed;
+    private final Map<String, SplittableRandom> streams = new HashMap<>();
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @brief global is the random service of the running application.
+     */
+    public static synchronized RandomStreams global() {
+        if (global == null) {
+            String property = System.getProperty("rng.seed");
+            Long parsed = parseSeed(property);
+            if (property != null && parsed == null) {
+                LOG.log(BAD_SEED, "ignoring -Drng.seed=" + property
+                        + ", not a number");
+            }
+            long seed = parsed != null
+                    ? parsed
+                    : mix(System.nanoTime() ^ System.currentTimeMillis());
+            global = new RandomStreams(seed);
+            LOG.log(SEED, "seed=" + seed + " (repeat with -Drng.seed="
+                    + seed + ")");
+        }
+        return global;
+    }
+
+    /**
+     * @return the seed in the property value, or null if there is none or
+     *         it is not a number
+     */
+    static Long parseSeed(String property) {
+        if (property == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(property.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the stream of the given subsystem, the same object on every
+     *         call
+     */
+    public synchronized SplittableRandom stream(String subsystem) {
+        return streams.computeIfAbsent(subsystem,
+                name -> new SplittableRandom(seedOf(name)));
+    }
+
+    /**
+     * @return the seed of a subsystem's stream, which depends only on the
+     *         root seed and the name of the subsystem
+     */
+    long seedOf(String subsystem) {
+        long hash = seed;
+        for (int i = 0; i < subsystem.length(); i++) {
+            hash = mix(hash + GOLDEN_GAMMA * (subsystem.charAt(i) + 1));
+        }
+        return mix(hash);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @brief mix is the finalizer of SplitMix64, which spreads every input
+     *        bit over the whole result.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,68 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RandomStreamsTest {
+    private static final long SEED = 133;
+    private RandomStreams streams;
+
+    @Before
+    public void setUp() throws Exception {
+        this.streams = new RandomStreams(SEED);
+    }
+
+    /**
+     * @brief Test that a subsystem draws the same numbers whatever other
+     *        streams were created before it.
+     * @throws Exception
+     */
+    @Test
+    public void stream_isIndependentOfOtherStreams() throws Exception {
+        RandomStreams other = new RandomStreams(SEED);
+        other.stream("boids").nextDouble();
+        assertEquals(this.streams.stream("world").nextLong(),
+                other.stream("world").nextLong());
+        assertNotEquals(this.streams.seedOf("world"),
+                this.streams.seedOf("boids"));
+        assertSame(this.streams.stream("world"),
+                this.streams.stream("world"));
+    }
+
+    /**
+     * @brief Test that two worlds built from the same seed are the same.
+     * @throws Exception
+     */
+    @Test
+    public void sameSeed_buildsTheSameWorld() throws Exception {
+        GameWorld first = new GameWorld(
+                this.streams.stream("world").nextLong());
+        GameWorld second = new GameWorld(
+                new RandomStreams(SEED).stream("world").nextLong());
+        for (int i = 0; i < first.getPonds().size(); i++) {
+            assertEquals(first.getPonds().get(i).getPositionX(),
+                    second.getPonds().get(i).getPositionX(), 0);
+            assertEquals(first.getPonds().get(i).getRadius(),
+                    second.getPonds().get(i).getRadius(), 0);
+        }
+        for (int i = 0; i < first.getClouds().size(); i++) {
+            assertEquals(first.getClouds().get(i).getPositionY(),
+                    second.getClouds().get(i).getPositionY(), 0);
+        }
+    }
+
+    /**
+     * @brief Test that a seed property that is not a number is ignored
+     *        instead of failing.
+     * @throws Exception
+     */
+    @Test
+    public void parseSeed_ignoresBadValues() throws Exception {
+        assertEquals(Long.valueOf(42), RandomStreams.parseSeed(" 42 "));
+        assertNull(RandomStreams.parseSeed("forty-two"));
+        assertNull(RandomStreams.parseSeed(null));
+    }
+}
@@ -0,0 +1,59 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * @brief ReplayRunner replays a recorded InputJournal headless and as fast
+ *        as the simulation can run, without JavaFX windows or frame pacing.
+ * @summary The world is rebuilt from the seed in the journal and stepped to
+ *          the end tick of the journal; every command is applied before the
+ *          step it was recorded at, exactly as Game did during the session.
+ *          Run it with a journal written by GameApp on exit, optionally
+ *          repeated to warm up the JIT:
+ *
+ *          java ReplayRunner session.rmj [repeats]
+ */
+public class ReplayRunner {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final String DEFAULT_JOURNAL_FILE = "session.rmj";
+
+    /**
+     * @brief replay runs the recorded game from its start to its end tick.
+     * @return the world at the end of the game
+     */
+    public static GameWorld replay(InputJournal journal) {
+        GameWorld world = new GameWorld(journal.getWorldSeed());
+        double stepSeconds = journal.getStepSeconds();
+        int next = 0;
+        while (world.getTick() < journal.getEndTick()) {
+            while (next < journal.size()
+                    && journal.getTick(next) == world.getTick()) {
+                journal.getCommand(next++).apply(world);
+            }
+            world.update(stepSeconds);
+        }
+        // commands recorded at the end tick were applied without a step
+        while (next < journal.size()) {
+            journal.getCommand(next++).apply(world);
+        }
+        return world;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = args.length > 0 ? args[0] : DEFAULT_JOURNAL_FILE;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        InputJournal journal = InputJournal.read(Paths.get(file));
+        System.out.println("Replaying " + file + ": " + journal);
+        for (int run = 1; run <= repeats; run++) {
+            long start = System.nanoTime();
+            GameWorld world = replay(journal);
+            double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+            double simulatedSeconds = world.getTick()
+                    * journal.getStepSeconds();
+            System.out.printf("run %d: %d steps in %.3f s, %.0f steps/s"
+                    + " (%.0fx real time)%n",
+                    run, world.getTick(), seconds, world.getTick() / seconds,
+                    simulatedSeconds / seconds);
+            System.out.println("  " + world.getHelicopter());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.Arrays;
+
+/**
+ * @brief RewindBuffer keeps the last seconds of a game as WorldSnapshots in
+ *        memory, so the game can be rewound.
+ * @summary A snapshot is recorded every ticksPerSnapshot steps into a ring of
+ *          fixed capacity; when it is full the oldest snapshot is dropped.
+ *          Most of the world does not change between two snapshots (the
+ *          ponds, the seed, most bits of the positions), so only every
+ *          keyframeInterval-th snapshot is stored whole. The ones in between
+ *          are stored as a delta: the bytes XORed with the previous snapshot,
+ *          where the runs of zeros (unchanged bytes) are replaced by their
+ *          length. The oldest snapshot in the ring is always a keyframe: when
+ *          a keyframe is dropped the delta after it is decoded and stored
+ *          whole instead.
+ *
+ *          A delta is a sequence of (varint unchanged byte count, varint
+ *          changed byte count, changed bytes XOR previous bytes).
+ */
+class RewindBuffer {
+    private final int ticksPerSnapshot;
+    private final int keyframeInterval;
+    private final byte[][] entries;
+    private final boolean[] isKeyframe;
+    private final long[] ticks;
+    private int oldest;
+    private int count;
+    private int sinceKeyframe;
+    // the newest snapshot decoded, the base of the next delta
+    private byte[] newest;
+    private long storedBytes;
+    private long capturedBytes;
+
+    /**
+     * @param ticksPerSnapshot a snapshot is recorded every this many steps
+     * @param capacity         the most snapshots kept
+     * @param keyframeInterval every this many snapshots one is stored whole
+     */
+    public RewindBuffer(int ticksPerSnapshot, int capacity,
+            int keyframeInterval) {
+        if (ticksPerSnapshot <= 0 || capacity <= 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "ticksPerSnapshot, capacity and keyframeInterval must be"
+                            + " positive");
+        }
+        this.ticksPerSnapshot = ticksPerSnapshot;
+        this.keyframeInterval = keyframeInterval;
+        this.entries = new byte[capacity][];
+        this.isKeyframe = new boolean[capacity];
+        this.ticks = new long[capacity];
+    }
+
+    /**
+     * @brief record captures the world if its tick is due for a snapshot.
+     *        Called after every simulation step.
+     */
+    public void record(GameWorld world) {
+        if (world.getTick() % ticksPerSnapshot != 0) {
+            return;
+        }
+        byte[] snapshot = WorldSnapshot.capture(world).bytes();
+        if (count == entries.length) {
+            dropOldest();
+        }
+        boolean keyframe = count == 0
+                || sinceKeyframe + 1 >= keyframeInterval
+                || snapshot.length != newest.length;
+        byte[] entry = keyframe ? snapshot : encodeDelta(newest, snapshot);
+        int index = indexOf(count);
+        entries[index] = entry;
+        isKeyframe[index] = keyframe;
+        ticks[index] = world.getTick();
+        count++;
+        sinceKeyframe = keyframe ? 0 : sinceKeyframe + 1;
+        newest = snapshot;
+        storedBytes += entry.length;
+        capturedBytes += snapshot.length;
+    }
+
+    private int indexOf(int position) {
+        return (oldest + position) % entries.length;
+    }
+
+    private void dropOldest() {
+        if (count > 1 && !isKeyframe[indexOf(1)]) {
+            // keep the oldest snapshot a keyframe
+            int next = indexOf(1);
+            byte[] decoded = decodeDelta(entries[oldest], entries[next]);
+            storedBytes += decoded.length - entries[next].length;
+            entries[next] = decoded;
+            isKeyframe[next] = true;
+        }
+        storedBytes -= entries[oldest].length;
+        entries[oldest] = null;
+        oldest = indexOf(1);
+        count--;
+    }
+
+    /**
+     * @brief rewindTo finds the newest snapshot at or before the given tick
+     *        (or the oldest one, if the tick is further back) and forgets
+     *        every snapshot after it, so recording continues from there.
+     * @return the snapshot, or null if nothing was recorded
+     */
+    public WorldSnapshot rewindTo(long tick) {
+        if (count == 0) {
+            return null;
+        }
+        int target = 0;
+        while (target + 1 < count && ticks[indexOf(target + 1)] <= tick) {
+            target++;
+        }
+        int keyframe = target;
+        while (!isKeyframe[indexOf(keyframe)]) {
+            keyframe--;
+        }
+        byte[] snapshot = entries[indexOf(keyframe)];
+        for (int i = keyframe + 1; i <= target; i++) {
+            snapshot = decodeDelta(snapshot, entries[indexOf(i)]);
+        }
+        for (int i = target + 1; i < count; i++) {
+            storedBytes -= entries[indexOf(i)].length;
+            entries[indexOf(i)] = null;
+        }
+        count = target + 1;
+        sinceKeyframe = target - keyframe;
+        newest = snapshot;
+        return WorldSnapshot.fromTrustedBytes(snapshot);
+    }
+
+    public void clear() {
+        Arrays.fill(entries, null);
+        oldest = 0;
+        count = 0;
+        sinceKeyframe = 0;
+        newest = null;
+        storedBytes = 0;
+        capturedBytes = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the bytes held by the snapshots in the buffer
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * @return the bytes of every snapshot recorded so far, uncompressed
+     */
+    public long getCapturedBytes() {
+        return capturedBytes;
+    }
+
+    static byte[] encodeDelta(byte[] previous, byte[] current) {
+        byte[] delta = new byte[current.length + 16];
+        int length = 0;
+        int i = 0;
+        while (i < current.length) {
+            int unchangedStart = i;
+            while (i < current.length && current[i] == previous[i]) {
+                i++;
+            }
+            int changedStart = i;
+            while (i < current.length && current[i] != previous[i]) {
+                i++;
+            }
+            int changed = i - changedStart;
+            if (length + 10 + changed > delta.length) {
+                delta = Arrays.copyOf(delta, (length + 10 + changed) * 2);
+            }
+            length = writeVarInt(delta, length, changedStart - unchangedStart);
+            length = writeVarInt(delta, length, changed);
+            for (int j = changedStart; j < i; j++) {
+                delta[length++] = (byte) (current[j] ^ previous[j]);
+            }
+        }
+        return Arrays.copyOf(delta, length);
+    }
+
+    static byte[] decodeDelta(byte[] previous, byte[] delta) {
+        byte[] current = previous.clone();
+        int[] position = { 0 };
+        int i = 0;
+        while (position[0] < delta.length) {
+            i += readVarInt(delta, position);
+            int changed = readVarInt(delta, position);
+            for (int j = 0; j < changed; j++) {
+                current[i++] ^= delta[position[0]++];
+            }
+        }
+        return current;
+    }
+
+    private static int writeVarInt(byte[] out, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static int readVarInt(byte[] in, int[] position) {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = in[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RewindBuffer{snapshots=" + count + ", storedBytes="
+                + storedBytes + "}";
+    }
+}
@@ -0,0 +1,70 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RewindBufferTest {
+    private static final double STEP_SECONDS = 1.0 / 120;
+    private static final int TICKS_PER_SNAPSHOT = 6;
+    private static final int CAPACITY = 100;
+    private GameWorld world;
+    private RewindBuffer buffer;
+    // what the world looked like at each recorded tick
+    private Map<Long, byte[]> captured = new HashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        this.world = new GameWorld(133);
+        this.world.getHelicopter().toggleIgnition();
+        this.world.getHelicopter().increaseSpeed();
+        this.buffer = new RewindBuffer(TICKS_PER_SNAPSHOT, CAPACITY, 8);
+    }
+
+    private void run(int steps) {
+        for (int step = 0; step < steps; step++) {
+            this.world.update(STEP_SECONDS);
+            if (step % 50 == 0) {
+                this.world.getHelicopter().steerLeft();
+            }
+            this.buffer.record(this.world);
+            this.captured.put(this.world.getTick(),
+                    WorldSnapshot.capture(this.world).toBytes());
+        }
+    }
+
+    /**
+     * @brief Test that rewinding restores exactly the state recorded at that
+     *        tick, also after the oldest snapshots were dropped.
+     * @throws Exception
+     */
+    @Test
+    public void rewindTo_returnsTheRecordedState() throws Exception {
+        run(CAPACITY * TICKS_PER_SNAPSHOT * 3);
+        assertEquals(CAPACITY, this.buffer.size());
+        long tick = this.world.getTick() - 4 * 120;
+        WorldSnapshot snapshot = this.buffer.rewindTo(tick);
+        assertEquals(tick, snapshot.getTick());
+        assertArrayEquals(this.captured.get(tick), snapshot.toBytes());
+        // too far back gives the oldest snapshot, which must still decode
+        WorldSnapshot oldest = this.buffer.rewindTo(0);
+        assertArrayEquals(this.captured.get(oldest.getTick()),
+                oldest.toBytes());
+        assertEquals(1, this.buffer.size());
+    }
+
+    /**
+     * @brief Test that the deltas take much less memory than the snapshots.
+     * @throws Exception
+     */
+    @Test
+    public void deltas_areSmallerThanSnapshots() throws Exception {
+        run(CAPACITY * TICKS_PER_SNAPSHOT);
+        assertTrue(this.buffer.getStoredBytes() * 2
+                < this.buffer.getCapturedBytes());
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Plain Java version of the fused boid rules on BoidLanes, the reference for
+ * VectorBoidKernel and the fallback when the Vector API is missing.
+ */
+class ScalarBoidKernel implements BoidKernel {
+    @Override
+    public void steer(BoidLanes lanes, BoidRules rules, int from, int to) {
+        BoidNeighborGrid grid = lanes.grid;
+        double[] xs = lanes.x;
+        double[] ys = lanes.y;
+        double[] dxs = lanes.dx;
+        double[] dys = lanes.dy;
+        double visualRangeSquared = rules.visualRange * rules.visualRange;
+        double minDistanceSquared = rules.minDistance * rules.minDistance;
+
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            double centerX = 0;
+            double centerY = 0;
+            double avgDX = 0;
+            double avgDY = 0;
+            int numNeighbors = 0;
+            double moveX = 0;
+            double moveY = 0;
+
+            int column = grid.column(x);
+            int row = grid.row(y);
+            for (int r = grid.firstNeighborRow(row); r <= grid.lastNeighborRow(row); r++) {
+                int end = grid.neighborEnd(column, r);
+                for (int j = grid.neighborStart(column, r); j < end; j++) {
+                    double offsetX = x - xs[j];
+                    double offsetY = y - ys[j];
+                    double distanceSquared = offsetX * offsetX + offsetY * offsetY;
+                    if (distanceSquared < visualRangeSquared) {
+                        centerX += xs[j];
+                        centerY += ys[j];
+                        avgDX += dxs[j];
+                        avgDY += dys[j];
+                        numNeighbors += 1;
+                    }
+                    // the boid itself has a zero offset, no need to skip it
+                    if (distanceSquared < minDistanceSquared) {
+                        moveX += offsetX;
+                        moveY += offsetY;
+                    }
+                }
+            }
+
+            double nextDx = dxs[i] + moveX * rules.avoidFactor;
+            double nextDy = dys[i] + moveY * rules.avoidFactor;
+            if (numNeighbors != 0) {
+                nextDx += (centerX / numNeighbors - x) * rules.centeringFactor;
+                nextDy += (centerY / numNeighbors - y) * rules.centeringFactor;
+                nextDx += (avgDX / numNeighbors - dxs[i]) * rules.matchingFactor;
+                nextDy += (avgDY / numNeighbors - dys[i]) * rules.matchingFactor;
+            }
+
+            double speed = Math.sqrt(nextDx * nextDx + nextDy * nextDy);
+            if (speed > rules.speedLimit) {
+                nextDx = (nextDx / speed) * rules.speedLimit;
+                nextDy = (nextDy / speed) * rules.speedLimit;
+            }
+
+            if (x < rules.margin) {
+                nextDx += rules.turnFactor;
+            }
+            if (x > rules.width - rules.margin) {
+                nextDx -= rules.turnFactor;
+            }
+            if (y < rules.margin) {
+                nextDy += rules.turnFactor;
+            }
+            if (y > rules.height - rules.margin) {
+                nextDy -= rules.turnFactor;
+            }
+            lanes.nextDx[i] = nextDx;
+            lanes.nextDy[i] = nextDy;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * @brief SpatialHashGrid is the collision broadphase: a uniform grid whose
+ *        cells are hashed into a fixed number of buckets.
+ * @summary Every registered CollisionBody is recorded in each cell its
+ *          bounding box touches. Only bodies sharing a cell are tested with
+ *          the exact CollisionBody.overlaps() (narrowphase), so the cost
+ *          grows with the number of nearby bodies instead of n^2. A pair
+ *          sharing several cells is only reported from the first cell they
+ *          share, so no pair is reported twice. The grid is rebuilt every
+ *          step (clear() then insert()); its arrays are reused.
+ */
+class SpatialHashGrid {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final double cellSize;
+
+    private CollisionBody[] bodies = new CollisionBody[INITIAL_CAPACITY];
+    private int[] bodyMinCellX = new int[INITIAL_CAPACITY];
+    private int[] bodyMinCellY = new int[INITIAL_CAPACITY];
+    private int bodyCount;
+
+    // one entry per (body, cell) the body touches
+    private int[] entryBody = new int[INITIAL_CAPACITY];
+    private int[] entryCellX = new int[INITIAL_CAPACITY];
+    private int[] entryCellY = new int[INITIAL_CAPACITY];
+    private int[] entryBucket = new int[INITIAL_CAPACITY];
+    private int entryCount;
+
+    // entries sorted by bucket, bucketStart[b]...bucketStart[b + 1]
+    private int[] sortedEntries = new int[INITIAL_CAPACITY];
+    private int[] bucketStart = new int[1];
+    private int bucketMask;
+    private boolean isBuilt;
+
+    /**
+     * @param cellSize the width and height of a grid cell, about the size of
+     *                 the typical body works best
+     */
+    public SpatialHashGrid(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @brief clear removes every body but keeps the allocated arrays.
+     */
+    public void clear() {
+        Arrays.fill(bodies, 0, bodyCount, null);
+        bodyCount = 0;
+        entryCount = 0;
+        isBuilt = false;
+    }
+
+    public int size() {
+        return bodyCount;
+    }
+
+    /**
+     * @brief insert registers a body at its current position.
+     */
+    public void insert(CollisionBody body) {
+        if (bodyCount == bodies.length) {
+            int capacity = bodies.length * 2;
+            bodies = Arrays.copyOf(bodies, capacity);
+            bodyMinCellX = Arrays.copyOf(bodyMinCellX, capacity);
+            bodyMinCellY = Arrays.copyOf(bodyMinCellY, capacity);
+        }
+        int index = bodyCount++;
+        int minCellX = cellOf(body.getMinX());
+        int minCellY = cellOf(body.getMinY());
+        int maxCellX = cellOf(body.getMaxX());
+        int maxCellY = cellOf(body.getMaxY());
+        bodies[index] = body;
+        bodyMinCellX[index] = minCellX;
+        bodyMinCellY[index] = minCellY;
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                addEntry(index, cellX, cellY);
+            }
+        }
+        isBuilt = false;
+    }
+
+    private void addEntry(int body, int cellX, int cellY) {
+        if (entryCount == entryBody.length) {
+            int capacity = entryBody.length * 2;
+            entryBody = Arrays.copyOf(entryBody, capacity);
+            entryCellX = Arrays.copyOf(entryCellX, capacity);
+            entryCellY = Arrays.copyOf(entryCellY, capacity);
+            entryBucket = Arrays.copyOf(entryBucket, capacity);
+        }
+        entryBody[entryCount] = body;
+        entryCellX[entryCount] = cellX;
+        entryCellY[entryCount] = cellY;
+        entryCount++;
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static int hash(int cellX, int cellY) {
+        int hash = (cellX * 73856093) ^ (cellY * 19349663);
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @brief build sorts the entries by bucket (counting sort) so that the
+     *        entries of one cell are next to each other.
+     */
+    private void build() {
+        if (isBuilt) {
+            return;
+        }
+        int bucketCount = Integer.highestOneBit(
+                Math.max(16, entryCount * 2 - 1)) << 1;
+        if (bucketStart.length < bucketCount + 1) {
+            bucketStart = new int[bucketCount + 1];
+        }
+        if (sortedEntries.length < entryCount) {
+            sortedEntries = new int[entryBody.length];
+        }
+        bucketMask = bucketCount - 1;
+        Arrays.fill(bucketStart, 0, bucketCount + 1, 0);
+        for (int entry = 0; entry < entryCount; entry++) {
+            int bucket = hash(entryCellX[entry], entryCellY[entry])
+                    & bucketMask;
+            entryBucket[entry] = bucket;
+            bucketStart[bucket]++;
+        }
+        // bucketStart[b] is now the end of bucket b
+        for (int bucket = 1; bucket < bucketCount; bucket++) {
+            bucketStart[bucket] += bucketStart[bucket - 1];
+        }
+        bucketStart[bucketCount] = entryCount;
+        // filling back to front moves bucketStart[b] to the start of b
+        for (int entry = entryCount - 1; entry >= 0; entry--) {
+            sortedEntries[--bucketStart[entryBucket[entry]]] = entry;
+        }
+        isBuilt = true;
+    }
+
+    /**
+     * @return true if (cellX, cellY) is the first cell that the two bodies
+     *         share, the only cell a pair is reported from
+     */
+    private boolean isFirstSharedCell(int bodyA, int bodyB,
+            int cellX, int cellY) {
+        return cellX == Math.max(bodyMinCellX[bodyA], bodyMinCellX[bodyB])
+                && cellY == Math.max(bodyMinCellY[bodyA], bodyMinCellY[bodyB]);
+    }
+
+    /**
+     * @brief forEachOverlappingPair reports every pair of registered bodies
+     *        that overlap, exactly once.
+     */
+    public void forEachOverlappingPair(
+            BiConsumer<CollisionBody, CollisionBody> visitor) {
+        build();
+        for (int bucket = 0; bucket <= bucketMask; bucket++) {
+            int end = bucketStart[bucket + 1];
+            for (int i = bucketStart[bucket]; i < end; i++) {
+                int entryA = sortedEntries[i];
+                for (int j = i + 1; j < end; j++) {
+                    int entryB = sortedEntries[j];
+                    int cellX = entryCellX[entryA];
+                    int cellY = entryCellY[entryA];
+                    int bodyA = entryBody[entryA];
+                    int bodyB = entryBody[entryB];
+                    if (cellX != entryCellX[entryB]
+                            || cellY != entryCellY[entryB]
+                            || !isFirstSharedCell(bodyA, bodyB, cellX, cellY)
+                            || !bodies[bodyA].overlaps(bodies[bodyB])) {
+                        continue;
+                    }
+                    visitor.accept(bodies[bodyA], bodies[bodyB]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief query reports every registered body that overlaps the given
+     *        body, exactly once. The body itself is not reported.
+     */
+    public void query(CollisionBody body, Consumer<CollisionBody> visitor) {
+        build();
+        int minCellX = cellOf(body.getMinX());
+        int minCellY = cellOf(body.getMinY());
+        int maxCellX = cellOf(body.getMaxX());
+        int maxCellY = cellOf(body.getMaxY());
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                int bucket = hash(cellX, cellY) & bucketMask;
+                int end = bucketStart[bucket + 1];
+                for (int i = bucketStart[bucket]; i < end; i++) {
+                    int entry = sortedEntries[i];
+                    int other = entryBody[entry];
+                    if (entryCellX[entry] != cellX
+                            || entryCellY[entry] != cellY
+                            || bodies[other] == body
+                            || cellX != Math.max(minCellX, bodyMinCellX[other])
+                            || cellY != Math.max(minCellY, bodyMinCellY[other])
+                            || !body.overlaps(bodies[other])) {
+                        continue;
+                    }
+                    visitor.accept(bodies[other]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpatialHashGridTest {
+    private static final int NUMBER_OF_BODIES = 500;
+    private SpatialHashGrid grid;
+    private List<CollisionBody> bodies;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(133);
+        this.grid = new SpatialHashGrid(50);
+        this.bodies = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_BODIES; i++) {
+            CollisionBody body = (i % 3 == 0)
+                    ? CollisionBody.rectangle(i,
+                            5 + random.nextDouble() * 120,
+                            5 + random.nextDouble() * 120)
+                    : CollisionBody.circle(i, 5 + random.nextDouble() * 60);
+            // negative coordinates exercise the cell rounding
+            body.setCenter(random.nextDouble() * 2000 - 500,
+                    random.nextDouble() * 2000 - 500);
+            this.bodies.add(body);
+            this.grid.insert(body);
+        }
+    }
+
+    /**
+     * @brief Test that the broadphase reports exactly the pairs a brute force
+     *        n^2 check finds, each once.
+     * @throws Exception
+     */
+    @Test
+    public void overlappingPairs_matchBruteForce() throws Exception {
+        Set<String> expected = new HashSet<>();
+        for (int a = 0; a < NUMBER_OF_BODIES; a++) {
+            for (int b = a + 1; b < NUMBER_OF_BODIES; b++) {
+                if (bodies.get(a).overlaps(bodies.get(b))) {
+                    expected.add(a + ":" + b);
+                }
+            }
+        }
+        Set<String> found = new HashSet<>();
+        int[] reported = { 0 };
+        this.grid.forEachOverlappingPair((bodyA, bodyB) -> {
+            int a = (Integer) bodyA.getOwner();
+            int b = (Integer) bodyB.getOwner();
+            found.add(Math.min(a, b) + ":" + Math.max(a, b));
+            reported[0]++;
+        });
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, found);
+        assertEquals(expected.size(), reported[0]);
+    }
+
+    /**
+     * @brief Test that a query reports every overlapping body once and never
+     *        the body itself.
+     * @throws Exception
+     */
+    @Test
+    public void query_matchesBruteForce() throws Exception {
+        for (CollisionBody body : bodies) {
+            List<CollisionBody> found = new ArrayList<>();
+            this.grid.query(body, found::add);
+            int expected = 0;
+            for (CollisionBody other : bodies) {
+                if (other != body && body.overlaps(other)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, found.size());
+            assertEquals(expected, new HashSet<>(found).size());
+            assertFalse(found.contains(body));
+        }
+    }
+
+    /**
+     * @brief Test the circle and rectangle narrowphase.
+     * @throws Exception
+     */
+    @Test
+    public void narrowphase_circleAndRectangle() throws Exception {
+        CollisionBody circle = CollisionBody.circle(null, 10);
+        CollisionBody square = CollisionBody.rectangle(null, 20, 20);
+        circle.setCenter(0, 0);
+        // corner of the square at (18, 18) is ~25 away from the circle
+        square.setCenter(28, 28);
+        assertFalse(circle.overlaps(square));
+        square.setCenter(19, 0);
+        assertTrue(circle.overlaps(square));
+        assertTrue(square.overlaps(circle));
+    }
+}
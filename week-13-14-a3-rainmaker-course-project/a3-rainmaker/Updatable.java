@@ -3,5 +3,8 @@
  * Updatable interface for objects that need to be updated every frame.
  */
 interface Updatable {
-    public void update();
+    /**
+     * @param deltaTime the time in seconds since the last update
+     */
+    public void update(double deltaTime);
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of ScalarBoidKernel using the incubating Vector API.
+ *
+ * The lanes are sorted by grid cell, so SPECIES.length() consecutive boids of
+ * one cell share the same 3x3 neighbour cells. Such a group is steered
+ * together: every neighbour is broadcast once and tested against the whole
+ * group, the distance tests become masks and the cohesion, alignment and
+ * separation sums are masked adds, one lane per boid. The 3 neighbour cells
+ * of a row are one contiguous range, swept in one loop. The speed limit and
+ * the bounds are applied to the group with blends. A group that does not
+ * fill the vector (the end of a cell or of the range) is masked off.
+ *
+ * Compile and run with --add-modules jdk.incubator.vector, only loaded
+ * through BoidKernel.load("simd").
+ */
+class VectorBoidKernel implements BoidKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // Offsets of the per-lane sums in the scratch array of steerGroup
+    private static final int CENTER_X = 0;
+    private static final int CENTER_Y = 1;
+    private static final int AVG_DX = 2;
+    private static final int AVG_DY = 3;
+    private static final int NUM_NEIGHBORS = 4;
+    private static final int MOVE_X = 5;
+    private static final int MOVE_Y = 6;
+    private static final int NUM_SUMS = 7;
+
+    @Override
+    public void steer(BoidLanes lanes, BoidRules rules, int from, int to) {
+        BoidNeighborGrid grid = lanes.grid;
+        // one per call, so ranges can be steered on several threads
+        double[] sums = new double[NUM_SUMS * SPECIES.length()];
+        int start = from;
+        while (start < to) {
+            int column = grid.column(lanes.x[start]);
+            int row = grid.row(lanes.y[start]);
+            int end = Math.min(to, Math.min(grid.cellEnd(column, row), start + SPECIES.length()));
+            steerGroup(lanes, rules, column, row, start, end, sums);
+            start = end;
+        }
+    }
+
+    private static DoubleVector sum(double[] sums, int sum) {
+        return DoubleVector.fromArray(SPECIES, sums, sum * SPECIES.length());
+    }
+
+    // Steer the lanes start ... end - 1, all in the cell (column, row)
+    private void steerGroup(BoidLanes lanes, BoidRules rules, int column, int row, int start, int end,
+            double[] sums) {
+        BoidNeighborGrid grid = lanes.grid;
+        VectorMask<Double> inGroup = SPECIES.indexInRange(start, end);
+        DoubleVector x = DoubleVector.fromArray(SPECIES, lanes.x, start, inGroup);
+        DoubleVector y = DoubleVector.fromArray(SPECIES, lanes.y, start, inGroup);
+
+        Arrays.fill(sums, 0);
+        for (int r = grid.firstNeighborRow(row); r <= grid.lastNeighborRow(row); r++) {
+            sweepRow(lanes, rules, x, y, grid.neighborStart(column, r), grid.neighborEnd(column, r), sums);
+        }
+        DoubleVector numNeighbors = sum(sums, NUM_NEIGHBORS);
+
+        DoubleVector dx = DoubleVector.fromArray(SPECIES, lanes.dx, start, inGroup);
+        DoubleVector dy = DoubleVector.fromArray(SPECIES, lanes.dy, start, inGroup);
+        DoubleVector nextDx = dx.add(sum(sums, MOVE_X).mul(rules.avoidFactor));
+        DoubleVector nextDy = dy.add(sum(sums, MOVE_Y).mul(rules.avoidFactor));
+        VectorMask<Double> hasNeighbors = numNeighbors.compare(VectorOperators.GT, 0);
+        nextDx = nextDx.add(sum(sums, CENTER_X).div(numNeighbors).sub(x).mul(rules.centeringFactor), hasNeighbors);
+        nextDy = nextDy.add(sum(sums, CENTER_Y).div(numNeighbors).sub(y).mul(rules.centeringFactor), hasNeighbors);
+        nextDx = nextDx.add(sum(sums, AVG_DX).div(numNeighbors).sub(dx).mul(rules.matchingFactor), hasNeighbors);
+        nextDy = nextDy.add(sum(sums, AVG_DY).div(numNeighbors).sub(dy).mul(rules.matchingFactor), hasNeighbors);
+
+        // limitSpeed
+        DoubleVector speed = nextDx.mul(nextDx).add(nextDy.mul(nextDy)).sqrt();
+        VectorMask<Double> tooFast = speed.compare(VectorOperators.GT, rules.speedLimit);
+        nextDx = nextDx.blend(nextDx.div(speed).mul(rules.speedLimit), tooFast);
+        nextDy = nextDy.blend(nextDy.div(speed).mul(rules.speedLimit), tooFast);
+
+        // keepWithinBounds
+        nextDx = nextDx.add(rules.turnFactor, x.compare(VectorOperators.LT, rules.margin));
+        nextDx = nextDx.sub(rules.turnFactor, x.compare(VectorOperators.GT, rules.width - rules.margin));
+        nextDy = nextDy.add(rules.turnFactor, y.compare(VectorOperators.LT, rules.margin));
+        nextDy = nextDy.sub(rules.turnFactor, y.compare(VectorOperators.GT, rules.height - rules.margin));
+
+        nextDx.intoArray(lanes.nextDx, start, inGroup);
+        nextDy.intoArray(lanes.nextDy, start, inGroup);
+    }
+
+    // Add the neighbours first ... last - 1 to the sums of the group (x, y).
+    // The sums are kept in registers for one row and then added to the
+    // scratch array: vectors carried across the row loop get boxed.
+    private void sweepRow(BoidLanes lanes, BoidRules rules, DoubleVector x, DoubleVector y,
+            int first, int last, double[] sums) {
+        double[] xs = lanes.x;
+        double[] ys = lanes.y;
+        double[] dxs = lanes.dx;
+        double[] dys = lanes.dy;
+        double visualRangeSquared = rules.visualRange * rules.visualRange;
+        double minDistanceSquared = rules.minDistance * rules.minDistance;
+        DoubleVector centerX = DoubleVector.zero(SPECIES);
+        DoubleVector centerY = DoubleVector.zero(SPECIES);
+        DoubleVector avgDX = DoubleVector.zero(SPECIES);
+        DoubleVector avgDY = DoubleVector.zero(SPECIES);
+        DoubleVector numNeighbors = DoubleVector.zero(SPECIES);
+        DoubleVector moveX = DoubleVector.zero(SPECIES);
+        DoubleVector moveY = DoubleVector.zero(SPECIES);
+
+        for (int j = first; j < last; j++) {
+            DoubleVector offsetX = x.sub(xs[j]);
+            DoubleVector offsetY = y.sub(ys[j]);
+            DoubleVector distanceSquared = offsetX.mul(offsetX).add(offsetY.mul(offsetY));
+
+            VectorMask<Double> inRange = distanceSquared.compare(VectorOperators.LT, visualRangeSquared);
+            centerX = centerX.add(xs[j], inRange);
+            centerY = centerY.add(ys[j], inRange);
+            avgDX = avgDX.add(dxs[j], inRange);
+            avgDY = avgDY.add(dys[j], inRange);
+            numNeighbors = numNeighbors.add(1, inRange);
+            // the boid itself has a zero offset, no need to skip it
+            VectorMask<Double> tooClose = distanceSquared.compare(VectorOperators.LT, minDistanceSquared);
+            moveX = moveX.add(offsetX, tooClose);
+            moveY = moveY.add(offsetY, tooClose);
+        }
+
+        addTo(sums, CENTER_X, centerX);
+        addTo(sums, CENTER_Y, centerY);
+        addTo(sums, AVG_DX, avgDX);
+        addTo(sums, AVG_DY, avgDY);
+        addTo(sums, NUM_NEIGHBORS, numNeighbors);
+        addTo(sums, MOVE_X, moveX);
+        addTo(sums, MOVE_Y, moveY);
+    }
+
+    private static void addTo(double[] sums, int sum, DoubleVector value) {
+        value.add(sum(sums, sum)).intoArray(sums, sum * SPECIES.length());
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.ArrayDeque;
+import java.util.function.Function;
+
+/**
+ * @brief ViewPool keeps the views of objects that left the game, so a new
+ *        object of the same kind reuses a view and its node subtree instead
+ *        of allocating a new one.
+ * @summary acquire() binds a free view to the model, or builds a new view if
+ *          none is free; release() hands a view back once it is no longer in
+ *          the scene. The counters show how many views were built and how
+ *          many were reused, so restarts and respawns can be checked to not
+ *          allocate views.
+ */
+class ViewPool<M, V extends PooledView<M>> {
+    private final String name;
+    private final Function<M, V> factory;
+    private final ArrayDeque<V> free = new ArrayDeque<>();
+    private long createdCount;
+    private long reusedCount;
+
+    /**
+     * @param name    the kind of view, for toString()
+     * @param factory builds a new view for a model
+     */
+    public ViewPool(String name, Function<M, V> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * @return a view of the model, reused if one is free
+     */
+    public V acquire(M model) {
+        V view = free.poll();
+        if (view == null) {
+            createdCount++;
+            return factory.apply(model);
+        }
+        reusedCount++;
+        view.bind(model);
+        return view;
+    }
+
+    /**
+     * @brief release hands back a view that was removed from the scene.
+     */
+    public void release(V view) {
+        free.push(view);
+    }
+
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getReusedCount() {
+        return reusedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ViewPool{" + name + ", created=" + createdCount
+                + ", reused=" + reusedCount + ", free=" + free.size() + "}";
+    }
+}
@@ -0,0 +1,62 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ViewPoolTest {
+    /**
+     * @brief StubView is a view without JavaFX nodes that remembers its
+     *        model.
+     */
+    private static class StubView implements PooledView<String> {
+        private String model;
+
+        StubView(String model) {
+            this.model = model;
+        }
+
+        @Override
+        public void bind(String model) {
+            this.model = model;
+        }
+    }
+
+    private ViewPool<String, StubView> pool;
+
+    @Before
+    public void setUp() throws Exception {
+        this.pool = new ViewPool<>("stub", StubView::new);
+    }
+
+    /**
+     * @brief Test that a released view is bound to the next model instead of
+     *        a new view being built.
+     * @throws Exception
+     */
+    @Test
+    public void acquire_reusesReleasedView() throws Exception {
+        StubView first = this.pool.acquire("a");
+        this.pool.release(first);
+        StubView second = this.pool.acquire("b");
+        assertSame(first, second);
+        assertEquals("b", second.model);
+        assertEquals(1, this.pool.getCreatedCount());
+        assertEquals(1, this.pool.getReusedCount());
+        assertEquals(0, this.pool.getFreeCount());
+    }
+
+    /**
+     * @brief Test that a new view is built when no view is free.
+     * @throws Exception
+     */
+    @Test
+    public void acquire_buildsViewWhenPoolIsEmpty() throws Exception {
+        StubView first = this.pool.acquire("a");
+        StubView second = this.pool.acquire("b");
+        assertEquals("a", first.model);
+        assertEquals("b", second.model);
+        assertEquals(2, this.pool.getCreatedCount());
+        assertEquals(0, this.pool.getReusedCount());
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @brief WorldSnapshot is the complete simulation state of a GameWorld as a
+ *        few hundred bytes, to save a game, load it again or rewind it.
+ * @summary The layout of the world (where the ponds and clouds are and how
+ *          big they are) follows from the seed the world was built from, so
+ *          only the seed and the state that changes while playing are kept:
+ *
+ *          int magic "RMS1", int version, long world seed, long tick,
+ *          int entity count, per entity double x, y, heading, speed and
+ *          boolean moving, then boolean ignition, double fuel, blade speed
+ *          and blade angle of the helicopter, int pond count and double
+ *          percentage per pond, int cloud count and double saturation per
+ *          cloud.
+ *
+ *          restore() writes the state into the models of an existing world
+ *          built from the same seed, so the views keep showing the same
+ *          models and nothing is rebuilt. The world holds no random
+ *          generator after it is built, so its seed is all the random state
+ *          there is.
+ */
+class WorldSnapshot {
+    private static final int MAGIC = 0x524d5331; // "RMS1"
+    private static final int VERSION = 1;
+    private static final int SEED_OFFSET = 8;
+    private static final int TICK_OFFSET = 16;
+    private static final int STATE_OFFSET = 24;
+
+    private final byte[] data;
+
+    private WorldSnapshot(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * @brief capture copies the state of the world at the end of its last
+     *        step.
+     */
+    public static WorldSnapshot capture(GameWorld world) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(world.getSeed());
+            out.writeLong(world.getTick());
+            EntityStore store = world.getEntityStore();
+            out.writeInt(store.size());
+            for (int id = 0; id < store.size(); id++) {
+                out.writeDouble(store.getPositionX(id));
+                out.writeDouble(store.getPositionY(id));
+                out.writeDouble(store.getHeading(id));
+                out.writeDouble(store.getSpeed(id));
+                out.writeBoolean(store.isMoving(id));
+            }
+            HelicopterModel helicopter = world.getHelicopter();
+            out.writeBoolean(helicopter.isIgnitionOn());
+            out.writeDouble(helicopter.getFuel());
+            out.writeDouble(helicopter.getBladeSpeed());
+            out.writeDouble(helicopter.getBladeAngle());
+            out.writeInt(world.getPonds().size());
+            for (PondModel pond : world.getPonds()) {
+                out.writeDouble(pond.getPondPercentage());
+            }
+            out.writeInt(world.getClouds().size());
+            for (CloudModel cloud : world.getClouds()) {
+                out.writeDouble(cloud.getSaturationPercentage());
+            }
+        } catch (IOException e) {
+            // a ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return new WorldSnapshot(bytes.toByteArray());
+    }
+
+    /**
+     * @brief fromBytes checks and wraps the bytes of a snapshot.
+     * @throws IOException if the bytes are not a snapshot of this version
+     */
+    public static WorldSnapshot fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(data))) {
+            if (data.length < STATE_OFFSET || in.readInt() != MAGIC) {
+                throw new IOException("not a world snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(
+                        "unsupported snapshot version " + version);
+            }
+        }
+        return new WorldSnapshot(data.clone());
+    }
+
+    public static WorldSnapshot read(Path file) throws IOException {
+        return fromBytes(Files.readAllBytes(file));
+    }
+
+    public void write(Path file) throws IOException {
+        Files.write(file, data);
+    }
+
+    /**
+     * @return a copy of the encoded snapshot
+     */
+    public byte[] toBytes() {
+        return data.clone();
+    }
+
+    /**
+     * @return the encoded snapshot itself, only for RewindBuffer
+     */
+    byte[] bytes() {
+        return data;
+    }
+
+    /**
+     * @brief fromTrustedBytes wraps bytes produced by toBytes() or bytes()
+     *        without copying or checking them, only for RewindBuffer.
+     */
+    static WorldSnapshot fromTrustedBytes(byte[] data) {
+        return new WorldSnapshot(data);
+    }
+
+    public long getWorldSeed() {
+        return readLong(SEED_OFFSET);
+    }
+
+    public long getTick() {
+        return readLong(TICK_OFFSET);
+    }
+
+    public int size() {
+        return data.length;
+    }
+
+    private long readLong(int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            value = (value << 8) | (data[i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * @brief restore puts the world back into the captured state.
+     * @throws IllegalArgumentException if the world was not built from the
+     *                                  seed of the snapshot
+     */
+    public void restore(GameWorld world) {
+        if (world.getSeed() != getWorldSeed()) {
+            throw new IllegalArgumentException("snapshot of world "
+                    + getWorldSeed() + " cannot restore world "
+                    + world.getSeed());
+        }
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(data, STATE_OFFSET,
+                        data.length - STATE_OFFSET))) {
+            EntityStore store = world.getEntityStore();
+            int entityCount = in.readInt();
+            checkCount("entities", entityCount, store.size());
+            for (int id = 0; id < entityCount; id++) {
+                store.setPosition(id, in.readDouble(), in.readDouble());
+                store.setHeading(id, in.readDouble());
+                store.setSpeed(id, in.readDouble());
+                store.setMoving(id, in.readBoolean());
+                // nothing to interpolate from after a jump
+                store.savePreviousState(id);
+            }
+            world.getHelicopter().restoreState(in.readBoolean(),
+                    in.readDouble(), in.readDouble(), in.readDouble());
+            checkCount("ponds", in.readInt(), world.getPonds().size());
+            for (PondModel pond : world.getPonds()) {
+                pond.setPondPercentage(in.readDouble());
+            }
+            checkCount("clouds", in.readInt(), world.getClouds().size());
+            for (CloudModel cloud : world.getClouds()) {
+                cloud.setSaturationPercentage(in.readDouble());
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("truncated snapshot", e);
+        }
+        world.setTick(getTick());
+        world.updateCollisionGrid();
+    }
+
+    private static void checkCount(String what, int count, int expected) {
+        if (count != expected) {
+            throw new IllegalArgumentException("snapshot has " + count + " "
+                    + what + ", the world has " + expected);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WorldSnapshot{seed=" + getWorldSeed() + ", tick=" + getTick()
+                + ", bytes=" + data.length + "}";
+    }
+}
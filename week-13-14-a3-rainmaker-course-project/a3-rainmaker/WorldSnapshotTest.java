@@ -0,0 +1,57 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorldSnapshotTest {
+    private static final long WORLD_SEED = 133;
+    private static final double STEP_SECONDS = 1.0 / 120;
+    private GameWorld world;
+
+    @Before
+    public void setUp() throws Exception {
+        this.world = new GameWorld(WORLD_SEED);
+        this.world.getHelicopter().toggleIgnition();
+        this.world.getHelicopter().increaseSpeed();
+        this.world.getHelicopter().steerRight();
+        this.world.getPonds().get(0).addPondPercentage(10);
+        this.world.getClouds().get(0).seed();
+        for (int step = 0; step < 600; step++) {
+            this.world.update(STEP_SECONDS);
+        }
+    }
+
+    /**
+     * @brief Test that a world restored from the bytes of a snapshot has the
+     *        same state and continues exactly like the original.
+     * @throws Exception
+     */
+    @Test
+    public void restore_continuesLikeTheOriginal() throws Exception {
+        byte[] bytes = WorldSnapshot.capture(this.world).toBytes();
+        assertTrue("a few hundred bytes", bytes.length < 512);
+        GameWorld restored = new GameWorld(WORLD_SEED);
+        WorldSnapshot.fromBytes(bytes).restore(restored);
+        assertEquals(this.world.getTick(), restored.getTick());
+        assertEquals(this.world.getPonds().get(0).getPondPercentage(),
+                restored.getPonds().get(0).getPondPercentage(), 0);
+        for (int step = 0; step < 600; step++) {
+            this.world.update(STEP_SECONDS);
+            restored.update(STEP_SECONDS);
+        }
+        assertArrayEquals(WorldSnapshot.capture(this.world).toBytes(),
+                WorldSnapshot.capture(restored).toBytes());
+    }
+
+    /**
+     * @brief Test that a snapshot is not restored into another world.
+     * @throws Exception
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void restore_rejectsAnotherWorld() throws Exception {
+        WorldSnapshot.capture(this.world).restore(
+                new GameWorld(WORLD_SEED + 1));
+    }
+}